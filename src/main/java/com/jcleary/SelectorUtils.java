@@ -1,16 +1,34 @@
 package com.jcleary;
 
-import org.openqa.selenium.WebElement;
-
-import java.util.function.Predicate;
+import com.jcleary.webdriver.ElementCondition;
 
 /**
  * Created by portalsoup on 3/11/17.
  */
 public class SelectorUtils {
-    public static final Predicate<WebElement> visible = (WebElement::isDisplayed);
+    public static final ElementCondition visible = ElementCondition.visible();
+
+    public static ElementCondition containsText(final String text) {
+        return ElementCondition.textEquals(text);
+    }
+
+    public static ElementCondition textContains(final String text) {
+        return ElementCondition.textContains(text);
+    }
+
+    public static ElementCondition textMatches(final String regex) {
+        return ElementCondition.textMatches(regex);
+    }
+
+    public static ElementCondition attributeEquals(final String name, final String value) {
+        return ElementCondition.attributeEquals(name, value);
+    }
+
+    public static ElementCondition hasClass(final String cssClass) {
+        return ElementCondition.hasClass(cssClass);
+    }
 
-    public static Predicate<WebElement> containsText(final String text) {
-        return (e -> e.getText().equals(text));
+    public static ElementCondition not(final ElementCondition condition) {
+        return ElementCondition.not(condition);
     }
 }
@@ -0,0 +1,327 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxProfile;
+import org.openqa.selenium.phantomjs.PhantomJSDriverService;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Options that make a browser load pages faster, applied by {@link State#startDriver(Browser, BrowserProfile)}.  Most
+ * page load time is often spent on assets no test asserts on, such as images and third party scripts, and blocking
+ * them is the cheapest speedup available.  Each option is applied where the browser offers a way to:
+ *
+ *      option              Chrome                      Firefox                     PhantomJS
+ *      headless            --headless                  -                           always headless
+ *      block images        content setting             permissions.default.image   load-images=false
+ *      block fonts         -                           document fonts disabled     -
+ *      block media         autoplay needs a gesture    no preload or autoplay      -
+ *      block hosts         host resolver rules         proxy auto-config           -
+ *      disk cache          --disk-cache-dir            cache parent directory      --disk-cache-path
+ *      page load strategy  capability                  capability                  capability
+ *
+ * Options a browser doesn't support are ignored.  Profiles are immutable, every with method returns a copy.
+ *
+ * The profile used by {@link State#startDriver(Browser)} is named by the system property {@value #PROPERTY}, one of
+ * 'default', 'headless' or 'fast'.
+ */
+public final class BrowserProfile {
+
+    public static final String PROPERTY = "driverpages.profile";
+
+    /**
+     * The placeholder in a disk cache directory that is replaced by the name of the browser, such as 'chrome'.
+     */
+    public static final String BROWSER_PLACEHOLDER = "{browser}";
+
+    /**
+     * When the browser considers a page loaded, and with it when navigation returns.
+     */
+    public enum PageLoadStrategy {
+
+        /** Once the page and every resource it uses have loaded. */
+        NORMAL,
+
+        /** Once the document has been parsed, without waiting for images, stylesheets and frames. */
+        EAGER,
+
+        /** As soon as the navigation was started, leaving every wait to the page objects. */
+        NONE
+    }
+
+    /**
+     * The browser's own defaults.
+     */
+    public static final BrowserProfile DEFAULT = new BrowserProfile(false, false, false, false,
+            Collections.emptyList(), null, PageLoadStrategy.NORMAL);
+
+    /**
+     * Headless, with the GPU and extensions disabled.
+     */
+    public static final BrowserProfile HEADLESS = DEFAULT.withHeadless();
+
+    /**
+     * Headless, without images, fonts or media, returning from navigation once the document has been parsed.
+     */
+    public static final BrowserProfile FAST = HEADLESS
+            .withBlockedImages()
+            .withBlockedFonts()
+            .withBlockedMedia()
+            .withPageLoadStrategy(PageLoadStrategy.EAGER);
+
+    private final boolean headless;
+    private final boolean blockImages;
+    private final boolean blockFonts;
+    private final boolean blockMedia;
+    private final List<String> blockedHosts;
+    private final String diskCacheDir;
+    private final PageLoadStrategy pageLoadStrategy;
+
+    private BrowserProfile(boolean headless, boolean blockImages, boolean blockFonts, boolean blockMedia,
+                           List<String> blockedHosts, String diskCacheDir, PageLoadStrategy pageLoadStrategy) {
+        this.headless = headless;
+        this.blockImages = blockImages;
+        this.blockFonts = blockFonts;
+        this.blockMedia = blockMedia;
+        this.blockedHosts = Collections.unmodifiableList(blockedHosts);
+        this.diskCacheDir = diskCacheDir;
+        this.pageLoadStrategy = pageLoadStrategy;
+    }
+
+    /**
+     * @param name                      'default', 'headless' or 'fast', in any case
+     *
+     * @return                          The profile of that name
+     */
+    public static BrowserProfile named(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "default":
+                return DEFAULT;
+            case "headless":
+                return HEADLESS;
+            case "fast":
+                return FAST;
+            default:
+                throw new IllegalArgumentException("Unknown browser profile: [" + name + "]");
+        }
+    }
+
+    /**
+     * @return                          The profile named by the system property {@value #PROPERTY}, or
+     *                                  {@link #DEFAULT} if it isn't set
+     */
+    public static BrowserProfile current() {
+        String name = System.getProperty(PROPERTY);
+        return name == null || name.isEmpty() ? DEFAULT : named(name);
+    }
+
+    public BrowserProfile withHeadless() {
+        return new BrowserProfile(true, blockImages, blockFonts, blockMedia, blockedHosts, diskCacheDir,
+                pageLoadStrategy);
+    }
+
+    public BrowserProfile withBlockedImages() {
+        return new BrowserProfile(headless, true, blockFonts, blockMedia, blockedHosts, diskCacheDir,
+                pageLoadStrategy);
+    }
+
+    public BrowserProfile withBlockedFonts() {
+        return new BrowserProfile(headless, blockImages, true, blockMedia, blockedHosts, diskCacheDir,
+                pageLoadStrategy);
+    }
+
+    public BrowserProfile withBlockedMedia() {
+        return new BrowserProfile(headless, blockImages, blockFonts, true, blockedHosts, diskCacheDir,
+                pageLoadStrategy);
+    }
+
+    /**
+     * @param patterns                  Host names to block, where '*' matches any characters, such as
+     *                                  '*.doubleclick.net'
+     *
+     * @return                          A copy that also blocks every request to the hosts
+     */
+    public BrowserProfile withBlockedHosts(String... patterns) {
+        List<String> hosts = new ArrayList<>(blockedHosts);
+        hosts.addAll(Arrays.asList(patterns));
+        return new BrowserProfile(headless, blockImages, blockFonts, blockMedia, hosts, diskCacheDir,
+                pageLoadStrategy);
+    }
+
+    /**
+     * @param directory                 The directory to keep the disk cache in across sessions, where
+     *                                  {@value #BROWSER_PLACEHOLDER} is replaced by the name of the browser
+     *
+     * @return                          A copy that shares a persistent disk cache between sessions
+     */
+    public BrowserProfile withDiskCache(String directory) {
+        return new BrowserProfile(headless, blockImages, blockFonts, blockMedia, blockedHosts, directory,
+                pageLoadStrategy);
+    }
+
+    public BrowserProfile withPageLoadStrategy(PageLoadStrategy strategy) {
+        return new BrowserProfile(headless, blockImages, blockFonts, blockMedia, blockedHosts, diskCacheDir,
+                strategy);
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public boolean isBlockImages() {
+        return blockImages;
+    }
+
+    public boolean isBlockFonts() {
+        return blockFonts;
+    }
+
+    public boolean isBlockMedia() {
+        return blockMedia;
+    }
+
+    public List<String> getBlockedHosts() {
+        return blockedHosts;
+    }
+
+    /**
+     * @param browser                   The browser the cache is for
+     *
+     * @return                          The disk cache directory of the browser, or null if the browser's own is used
+     */
+    public String getDiskCacheDir(Browser browser) {
+        return diskCacheDir == null
+                ? null
+                : diskCacheDir.replace(BROWSER_PLACEHOLDER, browser.name().toLowerCase(Locale.ROOT));
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    /**
+     * @param browser                   The browser to launch
+     *
+     * @return                          The capabilities that launch the browser with this profile
+     */
+    public DesiredCapabilities toCapabilities(Browser browser) {
+        DesiredCapabilities capabilities;
+
+        switch (browser) {
+            case CHROME:
+                capabilities = DesiredCapabilities.chrome();
+                capabilities.setCapability(ChromeOptions.CAPABILITY, toChromeOptions());
+                break;
+            case FIREFOX:
+                capabilities = DesiredCapabilities.firefox();
+                capabilities.setCapability(FirefoxDriver.PROFILE, toFirefoxProfile());
+                break;
+            case PHANTOM:
+                capabilities = DesiredCapabilities.phantomjs();
+                capabilities.setCapability(PhantomJSDriverService.PHANTOMJS_CLI_ARGS, toPhantomArguments());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported browser: [" + browser + " ]");
+        }
+
+        if (pageLoadStrategy != PageLoadStrategy.NORMAL) {
+            capabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY,
+                    pageLoadStrategy.name().toLowerCase(Locale.ROOT));
+        }
+        return capabilities;
+    }
+
+    private ChromeOptions toChromeOptions() {
+        ChromeOptions options = new ChromeOptions();
+        Map<String, Object> preferences = new HashMap<>();
+
+        if (headless) {
+            options.addArguments("--headless", "--disable-gpu", "--disable-extensions");
+        }
+        if (blockImages) {
+            preferences.put("profile.managed_default_content_settings.images", 2);
+        }
+        if (blockMedia) {
+            options.addArguments("--autoplay-policy=user-gesture-required");
+        }
+        if (!blockedHosts.isEmpty()) {
+            options.addArguments("--host-resolver-rules=" + blockedHosts.stream()
+                    .map(host -> "MAP " + host + " ~NOTFOUND")
+                    .collect(Collectors.joining(", ")));
+        }
+        if (diskCacheDir != null) {
+            options.addArguments("--disk-cache-dir=" + getDiskCacheDir(Browser.CHROME));
+        }
+        if (!preferences.isEmpty()) {
+            options.setExperimentalOption("prefs", preferences);
+        }
+        return options;
+    }
+
+    private FirefoxProfile toFirefoxProfile() {
+        FirefoxProfile profile = new FirefoxProfile();
+
+        if (blockImages) {
+            profile.setPreference("permissions.default.image", 2);
+        }
+        if (blockFonts) {
+            profile.setPreference("browser.display.use_document_fonts", 0);
+        }
+        if (blockMedia) {
+            profile.setPreference("media.autoplay.enabled", false);
+            profile.setPreference("media.preload.default", 0);
+            profile.setPreference("media.preload.auto", 0);
+        }
+        if (!blockedHosts.isEmpty()) {
+            profile.setPreference("network.proxy.type", 2);
+            profile.setPreference("network.proxy.autoconfig_url", toProxyAutoConfig());
+        }
+        if (diskCacheDir != null) {
+            profile.setPreference("browser.cache.disk.parent_directory", getDiskCacheDir(Browser.FIREFOX));
+        }
+        return profile;
+    }
+
+    /**
+     * @return                          A proxy auto-config script sending requests to the blocked hosts to a port
+     *                                  nothing listens on, as a data url
+     */
+    String toProxyAutoConfig() {
+        String conditions = blockedHosts.stream()
+                .map(host -> "shExpMatch(host, '" + host.replace("'", "\\'") + "')")
+                .collect(Collectors.joining(" || "));
+
+        return "data:text/javascript,function FindProxyForURL(url, host) { return " + conditions
+                + " ? 'PROXY 127.0.0.1:9' : 'DIRECT'; }";
+    }
+
+    private String[] toPhantomArguments() {
+        List<String> arguments = new ArrayList<>();
+
+        if (blockImages) {
+            arguments.add("--load-images=false");
+        }
+        if (diskCacheDir != null) {
+            arguments.add("--disk-cache=true");
+            arguments.add("--disk-cache-path=" + getDiskCacheDir(Browser.PHANTOM));
+        }
+        return arguments.toArray(new String[arguments.size()]);
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserProfile(headless=" + headless + ", blockImages=" + blockImages + ", blockFonts=" + blockFonts
+                + ", blockMedia=" + blockMedia + ", blockedHosts=" + blockedHosts + ", diskCacheDir=" + diskCacheDir
+                + ", pageLoadStrategy=" + pageLoadStrategy + ")";
+    }
+}
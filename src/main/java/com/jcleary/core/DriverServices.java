@@ -0,0 +1,159 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.phantomjs.PhantomJSDriverService;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Driver server processes shared by every session of a browser type.  Launching a ChromeDriver or PhantomJSDriver
+ * normally spawns a driver server for that one session, on a port of its own.  Sessions connected through
+ * {@link #connect(Browser)} instead all talk to a single server per browser type, which is started by the first
+ * session and stopped when the JVM exits, or earlier by {@link #stopAll()}.
+ *
+ * Firefox is driven through its extension in this version of Selenium, so there is no server to share and every
+ * Firefox session is launched on its own.
+ *
+ * Setting the system property {@value #SHARED_PROPERTY} to true makes {@link State#startDriver(Browser)}, and with it
+ * every State, {@link StatePool} and {@link ThreadStates} launched by browser type, connect through shared servers.
+ */
+public final class DriverServices {
+
+    public static final String SHARED_PROPERTY = "driverpages.sharedServices";
+
+    private static final Map<Browser, Supplier<? extends DriverService>> FACTORIES = new EnumMap<>(Browser.class);
+
+    private static final Map<Browser, DriverService> RUNNING = new EnumMap<>(Browser.class);
+
+    private static boolean hooked = false;
+
+    static {
+        FACTORIES.put(Browser.CHROME, ChromeDriverService::createDefaultService);
+        FACTORIES.put(Browser.PHANTOM,
+                () -> PhantomJSDriverService.createDefaultService(DesiredCapabilities.phantomjs()));
+    }
+
+    private DriverServices() {
+    }
+
+    /**
+     * @return                          True if {@link State#startDriver(Browser)} should connect through shared
+     *                                  servers
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(SHARED_PROPERTY);
+    }
+
+    /**
+     * Start a new browser session with the {@link BrowserProfile#current() current profile}, see
+     * {@link #connect(Browser, BrowserProfile)}.
+     *
+     * @param browser                   The browser to launch
+     *
+     * @return                          The driver of the new session
+     *
+     * @exception WebDriverException    If the server can't be started
+     */
+    public static WebDriver connect(Browser browser) {
+        return connect(browser, BrowserProfile.current());
+    }
+
+    /**
+     * Start a new browser session through the shared server of its browser type, starting the server if it isn't
+     * running yet.  Options of the profile that PhantomJS takes as command line arguments, such as its disk cache,
+     * belong to the server and are not applied to shared PhantomJS sessions.
+     *
+     * @param browser                   The browser to launch
+     * @param profile                   The options to launch it with
+     *
+     * @return                          The driver of the new session
+     *
+     * @exception WebDriverException    If the server can't be started
+     */
+    public static WebDriver connect(Browser browser, BrowserProfile profile) {
+        DriverService service = service(browser);
+
+        if (service == null) {
+            return new FirefoxDriver(profile.toCapabilities(browser));
+        }
+        return new RemoteWebDriver(service.getUrl(), profile.toCapabilities(browser));
+    }
+
+    /**
+     * @param browser                   A browser type
+     *
+     * @return                          The running server of that browser type, started if it isn't running yet,
+     *                                  or null if the browser type has no server to share
+     *
+     * @exception WebDriverException    If the server can't be started
+     */
+    static synchronized DriverService service(Browser browser) {
+        DriverService service = RUNNING.get(browser);
+
+        if (service != null && service.isRunning()) {
+            return service;
+        }
+
+        Supplier<? extends DriverService> factory = FACTORIES.get(browser);
+
+        if (factory == null) {
+            return null;
+        }
+
+        service = factory.get();
+        try {
+            service.start();
+        } catch (IOException e) {
+            throw new WebDriverException("Unable to start the " + browser + " driver server.", e);
+        }
+        RUNNING.put(browser, service);
+
+        if (!hooked) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DriverServices::stopAll, "driver-services"));
+            hooked = true;
+        }
+        return service;
+    }
+
+    /**
+     * Replace how the server of a browser type is created.
+     *
+     * @param browser                   The browser type
+     * @param factory                   Creates a server that isn't started yet
+     */
+    static synchronized void use(Browser browser, Supplier<? extends DriverService> factory) {
+        FACTORIES.put(browser, factory);
+    }
+
+    /**
+     * Stop every shared server, such as once a suite finishes.  Sessions still connected to them stop working, and
+     * the next {@link #connect(Browser)} starts a new server.
+     */
+    public static void stopAll() {
+        List<DriverService> stopping;
+
+        synchronized (DriverServices.class) {
+            stopping = new ArrayList<>(RUNNING.values());
+            RUNNING.clear();
+        }
+
+        for (DriverService service : stopping) {
+            try {
+                service.stop();
+            } catch (RuntimeException e) {
+                // The server is already gone, which is all stopping is meant to achieve.
+            }
+        }
+    }
+}
@@ -7,6 +7,17 @@ import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.phantomjs.PhantomJSDriver;
 
 import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Created by julian on 12/21/2015.
@@ -15,29 +26,81 @@ public class State implements Closeable {
 
     public final long GLOBAL_TIMEOUT = 30000L;
 
-    private WebDriver driver;
+    private static final ExecutorService STARTER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "driver-startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile WebDriver driver;
+
+    /**
+     * Starts the driver on first use, or null once it's started, see {@link #lazy(Supplier)}.
+     */
+    private Supplier<WebDriver> startup;
+
+    /**
+     * The driver being started in the background, if any, see {@link #async(Supplier)}.
+     */
+    private CompletableFuture<WebDriver> pending;
 
     private final StateStore store;
 
+    /**
+     * Incremented whenever the browser navigates, which invalidates any element references cached before it.
+     */
+    private final AtomicLong navigations = new AtomicLong();
+
+    /**
+     * Incremented whenever an element is interacted with, which may change the page in ways that aren't visible
+     * as DOM mutations, such as the value of an input.
+     */
+    private final AtomicLong interactions = new AtomicLong();
+
+    /**
+     * The implicit wait configured through {@link #setImplicitWait(long, TimeUnit)}.  Selenium offers no way to read
+     * it back from the driver, so it must be configured here to be managed.
+     */
+    private long implicitWaitMillis = 0;
+
+    /**
+     * The number of nested {@link #suspendImplicitWait()} calls that haven't been resumed yet.
+     */
+    private int implicitWaitSuspensions = 0;
+
+    /**
+     * The script timeout configured through {@link #setScriptTimeout(long, TimeUnit)}, zero being the driver's own
+     * default.  Like the implicit wait, it can't be read back from the driver.
+     */
+    private long scriptTimeoutMillis = 0;
+
+    /**
+     * The script timeouts of the {@link #overrideScriptTimeout(long)} calls that haven't been restored yet, the
+     * innermost first.
+     */
+    private final Deque<Long> scriptTimeoutOverrides = new ArrayDeque<>();
+
+    /**
+     * The only thread allowed to use the driver, or null if any thread may, see {@link #confineTo(Thread)}.
+     */
+    private volatile Thread owner;
+
+    /**
+     * Threads currently acting on behalf of the owner, see {@link #borrow(Supplier)}.
+     */
+    private final Set<Thread> borrowers = ConcurrentHashMap.newKeySet();
+
     public State() {
         this(Browser.FIREFOX);
     }
 
     public State(Browser browser) {
-        store = new StateStore();
+        this(browser, BrowserProfile.current());
+    }
 
-        switch (browser) {
-            case CHROME:
-                setDriver(new ChromeDriver());
-                break;
-            case FIREFOX:
-                setDriver(new FirefoxDriver());
-                break;
-            case PHANTOM:
-                setDriver(new PhantomJSDriver());
-            default:
-                throw new IllegalArgumentException("Unsupported browser: [" + browser + " ]");
-        }
+    public State(Browser browser, BrowserProfile profile) {
+        store = new StateStore();
+        setDriver(startDriver(browser, profile));
     }
 
     public State(WebDriver driver) {
@@ -48,22 +111,349 @@ public class State implements Closeable {
         setDriver(driver);
     }
 
+    private State(Supplier<WebDriver> startup, CompletableFuture<WebDriver> pending) {
+        this.store = new StateStore();
+        this.startup = startup;
+        this.pending = pending;
+    }
+
+    /**
+     * Create a state whose browser is only launched the first time its driver is used, so tests that only use the
+     * store, or end up skipped, never launch one.
+     *
+     * @param browser                   The browser to launch
+     *
+     * @return                          A state without a running browser
+     */
+    public static State lazy(Browser browser) {
+        return lazy(() -> startDriver(browser));
+    }
+
+    /**
+     * @param startup                   Starts the driver the first time it's used
+     *
+     * @return                          A state without a running browser
+     */
+    public static State lazy(Supplier<WebDriver> startup) {
+        return new State(startup, null);
+    }
+
+    /**
+     * Create a state whose browser is launched on a background thread right away, so that setup work such as
+     * populating the store overlaps with the launch.  Using the driver waits for the launch to finish.
+     *
+     * @param browser                   The browser to launch
+     *
+     * @return                          A state whose browser is starting
+     */
+    public static State async(Browser browser) {
+        return async(() -> startDriver(browser));
+    }
+
+    /**
+     * @param startup                   Starts the driver, called on a background thread
+     *
+     * @return                          A state whose browser is starting
+     */
+    public static State async(Supplier<WebDriver> startup) {
+        CompletableFuture<WebDriver> pending = CompletableFuture.supplyAsync(startup, STARTER);
+        return new State(() -> {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }, pending);
+    }
+
+    /**
+     * Launch a new browser with the {@link BrowserProfile#current() current profile}.
+     *
+     * @param browser                   The browser to launch
+     *
+     * @return                          The driver of the new browser session
+     */
+    public static WebDriver startDriver(Browser browser) {
+        return startDriver(browser, BrowserProfile.current());
+    }
+
+    /**
+     * Launch a new browser, through a shared driver server if {@link DriverServices#isEnabled()}.
+     *
+     * @param browser                   The browser to launch
+     * @param profile                   The options to launch it with
+     *
+     * @return                          The driver of the new browser session
+     */
+    public static WebDriver startDriver(Browser browser, BrowserProfile profile) {
+        if (DriverServices.isEnabled()) {
+            return DriverServices.connect(browser, profile);
+        }
+
+        switch (browser) {
+            case CHROME:
+                return new ChromeDriver(profile.toCapabilities(browser));
+            case FIREFOX:
+                return new FirefoxDriver(profile.toCapabilities(browser));
+            case PHANTOM:
+                return new PhantomJSDriver(profile.toCapabilities(browser));
+            default:
+                throw new IllegalArgumentException("Unsupported browser: [" + browser + " ]");
+        }
+    }
+
     public StateStore store() {
         return store;
     }
 
-    protected void setDriver(WebDriver driver) {
+    protected synchronized void setDriver(WebDriver driver) {
         this.driver = driver;
+        this.startup = null;
+        this.pending = null;
     }
 
+    /**
+     * @return                          True if the driver was started, false if it's still starting or will be
+     *                                  started on first use
+     */
+    public boolean isStarted() {
+        return driver != null;
+    }
+
+    /**
+     * @return                          The driver of this state
+     *
+     * @exception IllegalStateException If this state is confined to another thread
+     */
     public WebDriver getDriver() {
+        Thread current = Thread.currentThread();
+
+        if (owner != null && owner != current && !borrowers.contains(current)) {
+            throw new IllegalStateException("This state is confined to thread [" + owner.getName()
+                    + "] but was used from thread [" + current.getName() + "].");
+        }
+
+        WebDriver started = driver;
+        return started != null ? started : start();
+    }
+
+    /**
+     * Finish starting the driver, applying the implicit wait and script timeout configured while it was starting.
+     */
+    private synchronized WebDriver start() {
+        if (driver == null && startup != null) {
+            WebDriver started = startup.get();
+
+            if (implicitWaitMillis > 0 && implicitWaitSuspensions == 0) {
+                started.manage().timeouts().implicitlyWait(implicitWaitMillis, TimeUnit.MILLISECONDS);
+            }
+            if (effectiveScriptTimeout() > 0) {
+                started.manage().timeouts().setScriptTimeout(effectiveScriptTimeout(), TimeUnit.MILLISECONDS);
+            }
+            setDriver(started);
+        }
         return driver;
     }
 
     /**
-     * Close this state.  Once closed it cannot be used again.
+     * Only allow a single thread to use the driver from now on, so that a state leaking into another test running in
+     * parallel fails at once instead of driving the wrong browser.
+     *
+     * @param thread                    The thread allowed to use the driver, or null to allow any thread
+     */
+    public void confineTo(Thread thread) {
+        owner = thread;
+    }
+
+    /**
+     * @return                          The thread this state is confined to, or null if it isn't confined
+     */
+    public Thread getOwner() {
+        return owner;
+    }
+
+    /**
+     * Use the driver from the current thread on behalf of the thread this state is confined to, such as to poll a
+     * wait the owner is waiting on.  The action runs {@link #exclusively(Supplier) exclusively}, so it never uses
+     * the driver at the same time as the owner's Selectors.
+     *
+     * @param action                    The work to do with this state
+     *
+     * @return                          The outcome of the action
+     */
+    public final <T> T borrow(Supplier<T> action) {
+        Thread current = Thread.currentThread();
+
+        if (owner == null || owner == current || !borrowers.add(current)) {
+            return exclusively(action);
+        }
+
+        try {
+            return exclusively(action);
+        } finally {
+            borrowers.remove(current);
+        }
+    }
+
+    /**
+     * Run an action while no other thread runs one on this state.  Borrowed actions run this way, as does everything
+     * in {@link com.jcleary.webdriver} that drives the browser, such as Selector operations, batches, races, row
+     * extraction and page navigation, so a wait polled in the background never uses the driver, or a Selector's
+     * caches, at the same time as the thread waiting on it.  Calls nest.
+     *
+     * Code that uses {@link #getDriver()} directly must run through this method as well while background waits on
+     * this state are pending.
+     *
+     * @param action                    The work to do with the driver
+     *
+     * @return                          The outcome of the action
+     */
+    public final <T> T exclusively(Supplier<T> action) {
+        synchronized (this) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Configure the driver's implicit wait and remember it, so that it can be suspended for checks that expect
+     * elements to be absent.
+     *
+     * @param duration                  The implicit wait
+     * @param unit                      The unit of the duration
+     */
+    public synchronized void setImplicitWait(long duration, TimeUnit unit) {
+        implicitWaitMillis = unit.toMillis(duration);
+
+        if (implicitWaitSuspensions == 0 && driver != null) {
+            driver.manage().timeouts().implicitlyWait(implicitWaitMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long getImplicitWaitMillis() {
+        return implicitWaitMillis;
+    }
+
+    /**
+     * Set the driver's implicit wait to zero until {@link #resumeImplicitWait()} is called as many times as this.
+     * Nested calls are coalesced so the driver is only told once, and nothing is sent when there is no implicit
+     * wait to suspend.
+     */
+    public synchronized void suspendImplicitWait() {
+        if (implicitWaitSuspensions++ == 0 && implicitWaitMillis > 0 && driver != null) {
+            driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Restore the implicit wait once every {@link #suspendImplicitWait()} has been resumed.
+     */
+    public synchronized void resumeImplicitWait() {
+        if (implicitWaitSuspensions > 0 && --implicitWaitSuspensions == 0 && implicitWaitMillis > 0
+                && driver != null) {
+            driver.manage().timeouts().implicitlyWait(implicitWaitMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Configure the driver's script timeout and remember it, so that it can be restored after a script that needs a
+     * longer one.
+     *
+     * @param duration                  The script timeout
+     * @param unit                      The unit of the duration
+     */
+    public synchronized void setScriptTimeout(long duration, TimeUnit unit) {
+        scriptTimeoutMillis = unit.toMillis(duration);
+
+        if (scriptTimeoutOverrides.isEmpty() && driver != null) {
+            driver.manage().timeouts().setScriptTimeout(scriptTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long getScriptTimeoutMillis() {
+        return scriptTimeoutMillis;
+    }
+
+    /**
+     * Set the driver's script timeout until {@link #restoreScriptTimeout()} is called, such as for an asynchronous
+     * script that waits in the browser.  Overrides nest, each restore returning to the timeout before it.
+     *
+     * @param timeoutMillis             The script timeout to use meanwhile
+     */
+    public synchronized void overrideScriptTimeout(long timeoutMillis) {
+        scriptTimeoutOverrides.push(timeoutMillis);
+
+        if (driver != null) {
+            driver.manage().timeouts().setScriptTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Undo the innermost {@link #overrideScriptTimeout(long)}, returning to the override before it or otherwise to the
+     * configured script timeout.
+     */
+    public synchronized void restoreScriptTimeout() {
+        if (scriptTimeoutOverrides.pollFirst() != null && driver != null) {
+            driver.manage().timeouts().setScriptTimeout(effectiveScriptTimeout(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Must hold the state's lock.
+     */
+    private long effectiveScriptTimeout() {
+        Long override = scriptTimeoutOverrides.peekFirst();
+        return override != null ? override : scriptTimeoutMillis;
+    }
+
+    /**
+     * Record that the browser navigated to another document.  Called by {@link com.jcleary.webdriver.Page}'s
+     * navigation methods, and should be called by anything else that navigates the driver directly.
+     */
+    public void navigated() {
+        navigations.incrementAndGet();
+    }
+
+    /**
+     * @return                          The number of navigations recorded by {@link #navigated()}
+     */
+    public long getNavigationCount() {
+        return navigations.get();
+    }
+
+    /**
+     * Record that an element was clicked, typed into, cleared or submitted.  Called by
+     * {@link com.jcleary.webdriver.Selector}'s actions.
+     */
+    public void interacted() {
+        interactions.incrementAndGet();
+    }
+
+    /**
+     * @return                          The number of interactions recorded by {@link #interacted()}
+     */
+    public long getInteractionCount() {
+        return interactions.get();
+    }
+
+    /**
+     * Close this state.  Once closed it cannot be used again.  A browser that is still starting is quit once it has
+     * started, and one that was never used is never launched.
      */
     public void close() {
-        driver.quit();
+        WebDriver started;
+
+        synchronized (this) {
+            started = driver;
+
+            if (started == null && pending != null) {
+                pending.thenAccept(WebDriver::quit);
+            }
+            startup = null;
+            pending = null;
+        }
+
+        if (started != null) {
+            started.quit();
+        }
     }
 }
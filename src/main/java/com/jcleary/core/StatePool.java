@@ -0,0 +1,324 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hands out {@link State}s backed by browsers that were already started, so the cost of launching a browser is paid
+ * once per session instead of once per test.  Closing a leased State returns its browser to the pool instead of
+ * quitting it, after the browser is reset:
+ *
+ *      every window except one is closed
+ *      local and session storage of the current document are cleared
+ *      cookies of the current document are deleted
+ *      the implicit wait and script timeout are set to zero
+ *      the browser navigates to about:blank
+ *
+ * WebDriver only reaches the cookies and storage of the document the browser is on, so whatever a test left for
+ * other origins, such as after following a link to another site or signing in through a separate identity
+ * provider, is carried over to the next lease.  Tests that visit several origins should {@link Lease#fail() fail}
+ * their lease, or clear those origins themselves before closing it.
+ *
+ * A browser is quit instead of reused once it has been leased {@link #withMaxUses(int) a number of times}, when its
+ * lease was {@link Lease#fail() marked as failed} or when it can't be reset.  Each lease is a new State, so nothing
+ * kept in a State's store is carried over to the next test.
+ *
+ * <pre>
+ *     StatePool pool = StatePool.of(Browser.CHROME).prewarm(4);
+ *
+ *     try (State state = pool.lease()) {
+ *         ...
+ *     }
+ * </pre>
+ */
+public class StatePool implements Closeable {
+
+    private final Supplier<WebDriver> factory;
+
+    private final ExecutorService starter = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "state-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Deque<Session> idle = new ArrayDeque<>();
+    private final Deque<CompletableFuture<Session>> starting = new ArrayDeque<>();
+    private final List<Session> leased = new ArrayList<>();
+
+    private int maxUses = 50;
+    private int warmSessions = 0;
+    private boolean closed = false;
+
+    /**
+     * @param factory                   Starts a new browser session
+     */
+    public StatePool(Supplier<WebDriver> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param browser                   The browser every session of the pool runs
+     *
+     * @return                          A pool of sessions started by {@link State#startDriver(Browser)}
+     */
+    public static StatePool of(Browser browser) {
+        return new StatePool(() -> State.startDriver(browser));
+    }
+
+    /**
+     * @param browser                   The browser every session of the pool runs
+     * @param profile                   The options every session is launched with
+     *
+     * @return                          A pool of sessions started by {@link State#startDriver(Browser, BrowserProfile)}
+     */
+    public static StatePool of(Browser browser, BrowserProfile profile) {
+        return new StatePool(() -> State.startDriver(browser, profile));
+    }
+
+    /**
+     * @param maxUses                   The number of leases after which a browser is quit instead of reused
+     *
+     * @return                          This StatePool instance
+     */
+    public StatePool withMaxUses(int maxUses) {
+        if (maxUses < 1) {
+            throw new IllegalArgumentException("A session must be usable at least once: " + maxUses);
+        }
+        this.maxUses = maxUses;
+        return this;
+    }
+
+    /**
+     * Start browsers in the background until the given number of sessions are idle or starting, and keep that many
+     * warm from then on by starting a replacement whenever a session is quit.
+     *
+     * @param sessions                  The number of sessions to keep ready to lease
+     *
+     * @return                          This StatePool instance
+     */
+    public synchronized StatePool prewarm(int sessions) {
+        warmSessions = sessions;
+        topUp();
+        return this;
+    }
+
+    /**
+     * Lease a State.  An idle session is used if there is one, otherwise one that is being started in the
+     * background is waited for, otherwise a new browser is started on the calling thread.
+     *
+     * @return                          A State that returns its browser to the pool when closed
+     */
+    public Lease lease() {
+        CompletableFuture<Session> pending;
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The pool is closed.");
+            }
+            Session session = idle.pollFirst();
+
+            if (session != null) {
+                return leaseOf(session);
+            }
+            pending = starting.pollFirst();
+        }
+
+        Session session = pending != null ? pending.join() : new Session(factory.get());
+
+        synchronized (this) {
+            if (closed) {
+                session.quit();
+                throw new IllegalStateException("The pool is closed.");
+            }
+            return leaseOf(session);
+        }
+    }
+
+    /**
+     * @return                          The number of sessions waiting to be leased
+     */
+    public synchronized int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return                          The number of sessions currently leased
+     */
+    public synchronized int leasedCount() {
+        return leased.size();
+    }
+
+    /**
+     * Quit every idle browser, and every leased browser once it's returned.
+     */
+    @Override
+    public void close() {
+        List<Session> quitting;
+        List<CompletableFuture<Session>> pending;
+
+        synchronized (this) {
+            closed = true;
+            quitting = new ArrayList<>(idle);
+            pending = new ArrayList<>(starting);
+            idle.clear();
+            starting.clear();
+        }
+
+        quitting.forEach(Session::quit);
+        pending.forEach(future -> future.thenAccept(Session::quit));
+        starter.shutdown();
+    }
+
+    /**
+     * Take a returned session back, resetting it or quitting it.
+     */
+    void release(Lease lease) {
+        Session session = lease.session;
+        boolean reuse;
+
+        synchronized (this) {
+            if (!leased.remove(session)) {
+                return;
+            }
+            reuse = !closed && !lease.failed && session.uses < maxUses;
+        }
+
+        if (reuse && reset(session.driver)) {
+            synchronized (this) {
+                if (!closed) {
+                    idle.addFirst(session);
+                    return;
+                }
+            }
+        }
+
+        session.quit();
+
+        synchronized (this) {
+            topUp();
+        }
+    }
+
+    /**
+     * Return a browser to a blank state for the next lease.  Only the cookies and storage of the current document
+     * are cleared, see the class documentation.
+     *
+     * @return                          True if the browser was reset, false if it should be quit
+     */
+    static boolean reset(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String kept = handles.iterator().next();
+
+            for (String handle : handles) {
+                if (!handle.equals(kept)) {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(kept);
+
+            if (driver instanceof JavascriptExecutor) {
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            }
+            driver.manage().deleteAllCookies();
+            driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
+            driver.manage().timeouts().setScriptTimeout(0, TimeUnit.MILLISECONDS);
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start sessions in the background until enough are idle or starting.  Must hold the pool's lock.
+     */
+    private void topUp() {
+        for (int i = idle.size() + starting.size(); i < warmSessions && !closed; i++) {
+            starting.addLast(CompletableFuture.supplyAsync(() -> new Session(factory.get()), starter));
+        }
+    }
+
+    /**
+     * Must hold the pool's lock.
+     */
+    private Lease leaseOf(Session session) {
+        session.uses++;
+        leased.add(session);
+        return new Lease(this, session);
+    }
+
+    /**
+     * A browser session owned by the pool.
+     */
+    private static final class Session {
+
+        private final WebDriver driver;
+        private int uses = 0;
+
+        private Session(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        private void quit() {
+            try {
+                driver.quit();
+            } catch (RuntimeException e) {
+                // The browser is already gone, which is all quitting is meant to achieve.
+            }
+        }
+    }
+
+    /**
+     * A State whose browser belongs to a {@link StatePool}.  Closing it returns the browser to the pool.
+     */
+    public static final class Lease extends State {
+
+        private final StatePool pool;
+        private final Session session;
+        private volatile boolean failed = false;
+
+        private Lease(StatePool pool, Session session) {
+            super(session.driver);
+            this.pool = pool;
+            this.session = session;
+        }
+
+        /**
+         * Quit the browser instead of reusing it once this lease is closed, such as after a test failed and left the
+         * browser in an unknown state.
+         */
+        public void fail() {
+            failed = true;
+        }
+
+        /**
+         * @return                      The number of times the browser behind this lease was leased, this one included
+         */
+        public int getUses() {
+            return session.uses;
+        }
+
+        /**
+         * Return the browser to the pool.  The State must not be used afterwards.
+         */
+        @Override
+        public void close() {
+            pool.release(this);
+        }
+    }
+}
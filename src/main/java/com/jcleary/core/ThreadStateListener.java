@@ -0,0 +1,47 @@
+package com.jcleary.core;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+
+/**
+ * Manages {@link ThreadStates} for TestNG, so tests can run with parallel="methods" and each get a browser of their
+ * own from {@link ThreadStates#get()}.  The State of a test method's thread is released once the method finishes,
+ * marked as failed if the method failed, and every State and shared {@link DriverServices driver server} is closed
+ * once the suite finishes.
+ *
+ * <pre>
+ *     &lt;suite name="Pages" parallel="methods" thread-count="8"&gt;
+ *         &lt;listeners&gt;
+ *             &lt;listener class-name="com.jcleary.core.ThreadStateListener"/&gt;
+ *         &lt;/listeners&gt;
+ *         ...
+ *     &lt;/suite&gt;
+ * </pre>
+ */
+public class ThreadStateListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        // States are created on first use, so tests that don't drive a browser don't start one.
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            ThreadStates.release(testResult.getStatus() == ITestResult.FAILURE);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        ThreadStates.releaseAll();
+        DriverServices.stopAll();
+    }
+}
@@ -0,0 +1,155 @@
+package com.jcleary.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Gives every thread its own {@link State}, for running tests in parallel.  A thread's State is created the first time
+ * it's asked for and is {@link State#confineTo(Thread) confined} to that thread, so using it from another thread
+ * fails at once.
+ *
+ * States are created by {@link #use(Supplier)}, leased from a pool given to {@link #use(StatePool)}, or otherwise
+ * created from the system properties:
+ *
+ *      {@value #BROWSER_PROPERTY}      The {@link Browser} to launch, FIREFOX by default
+ *      {@value #POOL_PROPERTY}         If set, states are leased from a {@link StatePool} that keeps this many
+ *                                      sessions warm
+ *
+ * {@link ThreadStateListener} releases each thread's State after every test method and closes everything once the
+ * tests finish.
+ */
+public final class ThreadStates {
+
+    public static final String BROWSER_PROPERTY = "driverpages.browser";
+
+    public static final String POOL_PROPERTY = "driverpages.pool";
+
+    private static final ConcurrentMap<Thread, State> STATES = new ConcurrentHashMap<>();
+
+    private static Supplier<State> factory;
+
+    private static StatePool pool;
+
+    private ThreadStates() {
+    }
+
+    /**
+     * @param factory                   Creates a State for a thread that doesn't have one.  A pool used until now
+     *                                  is closed, and browsers still leased from it are quit once released
+     */
+    public static void use(Supplier<State> factory) {
+        replace(factory, null);
+    }
+
+    /**
+     * @param pool                      Leases a State to a thread that doesn't have one, and is closed by
+     *                                  {@link #releaseAll()}.  A different pool used until now is closed, and
+     *                                  browsers still leased from it are quit once released
+     */
+    public static void use(StatePool pool) {
+        replace(pool::lease, pool);
+    }
+
+    /**
+     * @return                          The State of the current thread, created if it doesn't have one yet
+     */
+    public static State get() {
+        Thread thread = Thread.currentThread();
+        State state = STATES.get(thread);
+
+        if (state == null) {
+            state = factory().get();
+            state.confineTo(thread);
+            STATES.put(thread, state);
+        }
+        return state;
+    }
+
+    /**
+     * @return                          The State of the current thread, or null if it doesn't have one
+     */
+    public static State current() {
+        return STATES.get(Thread.currentThread());
+    }
+
+    /**
+     * Close the State of the current thread, if it has one.  The next call to {@link #get()} creates another.
+     *
+     * @param failed                    True if the State was used by a failed test, in which case a leased
+     *                                  browser is quit instead of reused
+     */
+    public static void release(boolean failed) {
+        close(STATES.remove(Thread.currentThread()), failed);
+    }
+
+    /**
+     * Close the State of every thread, and the pool states were leased from, if any.
+     */
+    public static void releaseAll() {
+        List<State> states = new ArrayList<>();
+
+        for (Map.Entry<Thread, State> entry : STATES.entrySet()) {
+            if (STATES.remove(entry.getKey(), entry.getValue())) {
+                states.add(entry.getValue());
+            }
+        }
+        states.forEach(state -> close(state, false));
+
+        StatePool closing;
+        synchronized (ThreadStates.class) {
+            closing = pool;
+
+            if (pool != null) {
+                factory = null;
+                pool = null;
+            }
+        }
+
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    private static void replace(Supplier<State> factory, StatePool pool) {
+        StatePool replaced;
+
+        synchronized (ThreadStates.class) {
+            replaced = ThreadStates.pool;
+            ThreadStates.factory = factory;
+            ThreadStates.pool = pool;
+        }
+
+        if (replaced != null && replaced != pool) {
+            replaced.close();
+        }
+    }
+
+    private static void close(State state, boolean failed) {
+        if (state == null) {
+            return;
+        }
+        if (failed && state instanceof StatePool.Lease) {
+            ((StatePool.Lease) state).fail();
+        }
+        state.confineTo(null);
+        state.close();
+    }
+
+    private static synchronized Supplier<State> factory() {
+        if (factory == null) {
+            Browser browser = Browser.valueOf(System.getProperty(BROWSER_PROPERTY, Browser.FIREFOX.name()));
+            String sessions = System.getProperty(POOL_PROPERTY);
+
+            if (sessions == null || sessions.isEmpty()) {
+                use(() -> new State(browser));
+            } else {
+                use(StatePool.of(browser).prewarm(Integer.parseInt(sessions)));
+            }
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs an asynchronous script that waits inside the browser, such as {@link BrowserScripts#WAIT_UNTIL_LOADED}.  The
+ * script timeout of the State is raised for the duration of the script and restored afterwards, and the script is
+ * started over on the new document whenever a navigation unloads the one it was waiting in.  The script runs
+ * {@link State#exclusively(Supplier) exclusively}, so background waits on the State hold off until it answers.
+ */
+final class AsyncScript {
+
+    /**
+     * Extra time granted to the script timeout so that the script is able to report back on its own deadline.
+     */
+    static final long SCRIPT_TIMEOUT_SLACK_MILLIS = 5000L;
+
+    /**
+     * How long to wait for the next document after a navigation unloaded the previous one.
+     */
+    static final long RETRY_DELAY_MILLIS = 100L;
+
+    private AsyncScript() {
+    }
+
+    /**
+     * @param state                         The State whose driver runs the script
+     * @param timeoutMillis                 The maximum number of milliseconds the script waits in the browser
+     * @param script                        Executes the script given the number of milliseconds left, returning
+     *                                      its response
+     *
+     * @return                              The response of the script
+     *
+     * @exception TimeoutException          If the script didn't answer in time, or navigations kept unloading the
+     *                                      document until the time ran out
+     * @exception WebDriverException        If the script failed for any other reason than an unloaded document
+     */
+    static Object run(State state, long timeoutMillis, LongFunction<Object> script) {
+        return state.exclusively(() -> runExclusively(state, timeoutMillis, script));
+    }
+
+    private static Object runExclusively(State state, long timeoutMillis, LongFunction<Object> script) {
+        Clock clock = new SystemClock();
+        long end = clock.laterBy(timeoutMillis);
+        WebDriverException unloaded = null;
+
+        state.overrideScriptTimeout(timeoutMillis + SCRIPT_TIMEOUT_SLACK_MILLIS);
+        try {
+            do {
+                try {
+                    return script.apply(Math.max(0L, end - clock.now()));
+                } catch (TimeoutException e) {
+                    throw e;
+                } catch (WebDriverException e) {
+                    if (!isUnload(e)) {
+                        throw e;
+                    }
+                    unloaded = e;
+                }
+
+                try {
+                    Sleeper.SYSTEM_SLEEPER.sleep(new Duration(
+                            Math.max(0L, Math.min(RETRY_DELAY_MILLIS, end - clock.now())), TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } while (clock.isNowBefore(end));
+        } finally {
+            state.restoreScriptTimeout();
+        }
+        throw new TimeoutException("The document kept unloading while waiting in the browser.", unloaded);
+    }
+
+    /**
+     * @param e                             An exception thrown by an asynchronous script
+     *
+     * @return                              True if the script was interrupted by its document unloading, such as
+     *                                      on a navigation, rather than failing on its own
+     */
+    static boolean isUnload(WebDriverException e) {
+        String message = e.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains("unload");
+    }
+}
@@ -0,0 +1,152 @@
+package com.jcleary.webdriver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Assigns extracted text to the fields of a bean.  The constructor and field setters of each bean class are
+ * resolved once and cached, so mapping hundreds of rows costs no more reflection than mapping one.
+ */
+final class BeanMapper<T> {
+
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<Accessors>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return Accessors.resolve(type);
+        }
+    };
+
+    private final Class<T> bean;
+    private final Accessors accessors;
+
+    private BeanMapper(Class<T> bean, Accessors accessors) {
+        this.bean = bean;
+        this.accessors = accessors;
+    }
+
+    /**
+     * @param bean                          The bean class
+     * @param names                         The field names that will be mapped
+     *
+     * @return                              A mapper for the bean
+     *
+     * @exception IllegalArgumentException  If the bean can't be constructed or lacks one of the fields
+     */
+    static <T> BeanMapper<T> of(Class<T> bean, List<String> names) {
+        Accessors accessors = ACCESSORS.get(bean);
+
+        if (accessors.constructor == null) {
+            throw new IllegalArgumentException(bean.getName() + " needs a no argument constructor to be extracted into.");
+        }
+        for (String name : names) {
+            if (!accessors.setters.containsKey(name)) {
+                throw new IllegalArgumentException(bean.getName() + " has no assignable field named " + name + ".");
+            }
+        }
+        return new BeanMapper<>(bean, accessors);
+    }
+
+    T map(Map<String, String> row) {
+        try {
+            Object instance = accessors.constructor.invoke();
+
+            for (Map.Entry<String, String> field : row.entrySet()) {
+                if (field.getValue() != null) {
+                    accessors.setters.get(field.getKey()).invoke(instance, field.getValue());
+                }
+            }
+            return bean.cast(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to extract into " + bean.getName(), e);
+        }
+    }
+
+    /**
+     * The constructor and field setters of a bean class.  Each setter accepts the bean and a String which it
+     * converts to the field's type.
+     */
+    private static final class Accessors {
+
+        private static final Map<Class<?>, Function<String, Object>> CONVERSIONS = new HashMap<>();
+
+        static {
+            CONVERSIONS.put(String.class, s -> s);
+            CONVERSIONS.put(int.class, s -> Integer.valueOf(s.trim()));
+            CONVERSIONS.put(Integer.class, s -> Integer.valueOf(s.trim()));
+            CONVERSIONS.put(long.class, s -> Long.valueOf(s.trim()));
+            CONVERSIONS.put(Long.class, s -> Long.valueOf(s.trim()));
+            CONVERSIONS.put(double.class, s -> Double.valueOf(s.trim()));
+            CONVERSIONS.put(Double.class, s -> Double.valueOf(s.trim()));
+            CONVERSIONS.put(boolean.class, s -> Boolean.valueOf(s.trim()));
+            CONVERSIONS.put(Boolean.class, s -> Boolean.valueOf(s.trim()));
+        }
+
+        private static final MethodHandle APPLY;
+
+        static {
+            try {
+                APPLY = MethodHandles.publicLookup().findVirtual(Function.class, "apply",
+                        MethodType.methodType(Object.class, Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final MethodHandle constructor;
+        final Map<String, MethodHandle> setters;
+
+        private Accessors(MethodHandle constructor, Map<String, MethodHandle> setters) {
+            this.constructor = constructor;
+            this.setters = setters;
+        }
+
+        static Accessors resolve(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = null;
+
+            try {
+                Constructor<?> noArgs = type.getDeclaredConstructor();
+                noArgs.setAccessible(true);
+                constructor = lookup.unreflectConstructor(noArgs)
+                        .asType(MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException e) {
+                // Reported when a mapper is requested for the class
+            }
+
+            Map<String, MethodHandle> setters = new HashMap<>();
+
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    Function<String, Object> conversion = CONVERSIONS.get(field.getType());
+
+                    if (Modifier.isStatic(field.getModifiers()) || conversion == null
+                            || setters.containsKey(field.getName())) {
+                        continue;
+                    }
+
+                    try {
+                        field.setAccessible(true);
+                        MethodHandle setter = lookup.unreflectSetter(field).asType(
+                                MethodType.methodType(void.class, Object.class, Object.class));
+                        MethodHandle convert = APPLY.bindTo(conversion);
+                        setters.put(field.getName(), MethodHandles.filterArguments(setter, 1, convert));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalArgumentException("Unable to assign " + field, e);
+                    }
+                }
+            }
+            return new Accessors(constructor, Collections.unmodifiableMap(setters));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import com.jcleary.util.Ternary;
+import com.jcleary.webdriver.wait.Deadline;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the criteria of a {@link Loadable} into arguments for {@link BrowserScripts#WAIT_UNTIL_LOADED} so that
+ * the whole readiness check is polled inside the browser and answered in a single round trip.
+ */
+final class BrowserReadiness {
+
+    /**
+     * How often the criteria are re-evaluated inside the browser.
+     */
+    static final long IN_BROWSER_POLLING_MILLIS = 50L;
+
+    /**
+     * Used when the driver can't execute JavaScript and the criteria are polled from Java instead.
+     */
+    private static final long FALLBACK_POLLING_MILLIS = 200L;
+
+    private BrowserReadiness() {
+    }
+
+    /**
+     * Wait until every criterion is satisfied and the readiness signals are idle, any failure criterion is met or
+     * the time limit passes.  Only the annotated criteria are watched inside the browser, so
+     * {@link Loadable#failedBecause()} is asked before the wait and again if the page didn't load by its end.
+     *
+     * @param loadable                      The Loadable the criteria were read from
+     * @param criteria                      The criteria of the Loadable
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     *
+     * @return                              A report with a verdict for each criterion
+     */
+    static LoadReport waitUntilLoaded(Loadable loadable, LoadCriteria criteria, long timeoutMillis) {
+        List<LoadCriteria.Entry> entries = criteria.entries();
+        Optional<String> failedBecause = loadable.failedBecause();
+
+        if (failedBecause.isPresent()) {
+            return new LoadReport(Ternary.FALSE, failedBecause.get(), Collections.emptyList());
+        }
+
+        Readiness readiness = loadable.readiness();
+        State state = criteria.stateOf(loadable);
+        WebDriver driver = state == null ? null : state.getDriver();
+
+        if (driver == null) {
+            return new LoadReport(true, Collections.emptyList());
+        }
+
+        long budget = Deadline.clamp(timeoutMillis);
+
+        if (!(driver instanceof JavascriptExecutor)) {
+            return ImplicitWait.suspended(criteria.states(), () -> pollFromJava(loadable, criteria, budget));
+        }
+
+        List<Map<String, Object>> compiled = compile(entries);
+        Object response;
+
+        try {
+            response = AsyncScript.run(state, budget, remaining -> ((JavascriptExecutor) driver).executeAsyncScript(
+                    BrowserScripts.WAIT_UNTIL_LOADED,
+                    compiled,
+                    IN_BROWSER_POLLING_MILLIS,
+                    remaining,
+                    readiness.isNone() ? null : readiness.toScript()));
+        } catch (TimeoutException e) {
+            // The script didn't answer in time, so tell which criteria are still unmet by checking them from Java.
+            return criteria.evaluate(loadable, true);
+        }
+        LoadReport report = toReport(criteria, response);
+
+        if (report.getState() == Ternary.UNKNOWN) {
+            failedBecause = loadable.failedBecause();
+
+            if (failedBecause.isPresent()) {
+                return new LoadReport(Ternary.FALSE, failedBecause.get(), Collections.emptyList());
+            }
+        }
+        return report;
+    }
+
+    static List<Map<String, Object>> compile(List<LoadCriteria.Entry> entries) {
+        List<Map<String, Object>> compiled = new ArrayList<>();
+
+        for (LoadCriteria.Entry entry : entries) {
+            LoadCriterion criterion = entry.criterion;
+            Map<String, Object> c = new HashMap<>();
+
+            c.put("name", entry.name);
+            c.put("kind", criterion.getKind().name());
+            c.put("stable", criterion.isStable());
+            c.put("type", entry.selector.getType().name());
+            c.put("locator", entry.selector.getLocator());
+            c.put("presence", criterion.getPresence().name());
+            c.put("visibility", criterion.getVisibility().name());
+            c.put("containsText", criterion.getContainsText());
+            c.put("cssClasses", Arrays.asList(criterion.getCssClasses()));
+            c.put("id", criterion.getId());
+            c.put("findAtLeast", criterion.getFindAtLeast());
+            c.put("findAtMost", criterion.getFindAtMost());
+            c.put("findExactly", criterion.getFindExactly());
+            compiled.add(c);
+        }
+        return compiled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LoadReport toReport(LoadCriteria criteria, Object response) {
+        if (!(response instanceof Map)) {
+            throw new WebDriverException("Unexpected response while waiting for the page to load: " + response);
+        }
+        Map<String, Object> result = (Map<String, Object>) response;
+        List<Object> failures = (List<Object>) result.get("verdicts");
+        List<LoadReport.Verdict> verdicts = new ArrayList<>();
+
+        List<LoadCriteria.Entry> entries = criteria.entries();
+
+        for (int i = 0; i < entries.size(); i++) {
+            Object failure = ((Map<String, Object>) failures.get(i)).get("failure");
+            verdicts.add(new LoadReport.Verdict(entries.get(i).name, entries.get(i).selector,
+                    failure == null ? null : failure.toString()));
+        }
+        Object notReady = result.get("readiness");
+        return LoadCriteria.waitingFor(criteria.report(verdicts), notReady == null ? null : notReady.toString());
+    }
+
+    private static LoadReport pollFromJava(Loadable loadable, LoadCriteria criteria, long timeoutMillis) {
+        Clock clock = new SystemClock();
+        long end = clock.laterBy(timeoutMillis);
+
+        IncrementalLoad evaluation = new IncrementalLoad(loadable, criteria);
+
+        while (true) {
+            LoadReport report = evaluation.next();
+
+            if (report.getState() != Ternary.UNKNOWN || !clock.isNowBefore(end)) {
+                return report;
+            }
+
+            try {
+                Sleeper.SYSTEM_SLEEPER.sleep(new Duration(FALLBACK_POLLING_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return report;
+            }
+        }
+    }
+}
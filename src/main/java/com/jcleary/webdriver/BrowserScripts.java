@@ -0,0 +1,370 @@
+package com.jcleary.webdriver;
+
+/**
+ * JavaScript sources that are executed inside the browser through {@link org.openqa.selenium.JavascriptExecutor}.
+ * Each script is self contained and starts with the shared helper functions so that it can be sent as a single
+ * command without any prior setup in the page.
+ */
+final class BrowserScripts {
+
+    /**
+     * Helper functions shared by all scripts.
+     *
+     * locate(type, locator, root) mirrors the {@link ByFactory} constants and returns an array of matching elements.
+     * isDisplayed(e) approximates {@link org.openqa.selenium.WebElement#isDisplayed()}.
+     * textOf(e) approximates {@link org.openqa.selenium.WebElement#getText()}.
+     * attributeOf(e, name) approximates {@link org.openqa.selenium.WebElement#getAttribute(String)}.
+     */
+    static final String HELPERS = ""
+            + "var toArray = function (list) { return Array.prototype.slice.call(list); };"
+            + "var quote = function (value) { return '\"' + value.replace(/[\"\\\\]/g, '\\\\$&') + '\"'; };"
+            + "var locate = function (type, locator, root) {"
+            + "  root = root || document;"
+            + "  switch (type) {"
+            + "    case 'CSS': return toArray(root.querySelectorAll(locator));"
+            + "    case 'ID': return toArray(root.querySelectorAll('[id=' + quote(locator) + ']'));"
+            + "    case 'NAME': return toArray(root.querySelectorAll('[name=' + quote(locator) + ']'));"
+            + "    case 'TAG_NAME': return toArray(root.getElementsByTagName(locator));"
+            + "    case 'CLASS_NAME': return toArray(root.getElementsByClassName(locator));"
+            + "    case 'LINK_TEXT': return toArray(root.querySelectorAll('a'))"
+            + "        .filter(function (a) { return textOf(a) === locator; });"
+            + "    case 'PARTIAL_LINK_TEXT': return toArray(root.querySelectorAll('a'))"
+            + "        .filter(function (a) { return textOf(a).indexOf(locator) >= 0; });"
+            + "    case 'XPATH':"
+            + "      var found = [];"
+            + "      var snapshot = document.evaluate(locator, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "      for (var i = 0; i < snapshot.snapshotLength; i++) { found.push(snapshot.snapshotItem(i)); }"
+            + "      return found;"
+            + "  }"
+            + "  throw new Error('Unsupported locator type: ' + type);"
+            + "};"
+            + "var isDisplayed = function (e) {"
+            + "  var style = window.getComputedStyle(e);"
+            + "  return style.visibility !== 'hidden' && style.visibility !== 'collapse' && style.opacity !== '0'"
+            + "      && !!(e.offsetWidth || e.offsetHeight || e.getClientRects().length);"
+            + "};"
+            + "var textOf = function (e) {"
+            + "  var text = e.innerText !== undefined ? e.innerText : e.textContent;"
+            + "  return (text || '').replace(/\\u00a0/g, ' ').trim();"
+            + "};"
+            + "var attributeOf = function (e, name) {"
+            + "  var property = e[name];"
+            + "  if (typeof property === 'boolean') { return property ? 'true' : null; }"
+            + "  if (name === 'value' && property !== undefined && property !== null) { return String(property); }"
+            + "  return e.getAttribute(name);"
+            + "};";
+
+    /**
+     * Reads the presence count, visibility, text and a set of attributes for many locators at once.
+     *
+     * arguments[0] is a list of queries, each query being a list of [type, locator, [attribute names]].  The result
+     * is a list with one map per query containing the keys count, displayed, text and attributes.
+     */
+    static final String QUERY_ALL = HELPERS
+            + "return arguments[0].map(function (query) {"
+            + "  var found = locate(query[0], query[1]);"
+            + "  var first = found[0];"
+            + "  var attributes = {};"
+            + "  if (first) {"
+            + "    query[2].forEach(function (name) { attributes[name] = attributeOf(first, name); });"
+            + "  }"
+            + "  return {"
+            + "    count: found.length,"
+            + "    displayed: first ? isDisplayed(first) : false,"
+            + "    text: first ? textOf(first) : null,"
+            + "    attributes: attributes"
+            + "  };"
+            + "});";
+
+    /**
+     * Defines failureOf(criterion) which evaluates a compiled {@link LoadCriterion} and returns the name of the first
+     * check that is not satisfied, or null.  An absent element is treated as not displayed.
+     */
+    static final String CRITERIA_HELPERS = HELPERS
+            + "var failureOf = function (c) {"
+            + "  var found = locate(c.type, c.locator);"
+            + "  var first = found[0];"
+            + "  if (c.presence !== 'UNKNOWN' && (c.presence === 'TRUE') !== !!first) { return 'presence'; }"
+            + "  if (c.visibility !== 'UNKNOWN' && (c.visibility === 'TRUE') !== (!!first && isDisplayed(first))) {"
+            + "    return 'visibility';"
+            + "  }"
+            + "  if (c.containsText && (!first || textOf(first).indexOf(c.containsText) < 0)) { return 'containsText'; }"
+            + "  if (c.cssClasses.length) {"
+            + "    var classes = first ? (first.getAttribute('class') || '').split(' ') : [];"
+            + "    var hasAll = c.cssClasses.every(function (name) { return classes.indexOf(name) >= 0; });"
+            + "    if (!hasAll) { return 'containsCssClasses'; }"
+            + "  }"
+            + "  if (c.id && (!first || first.getAttribute('id') !== c.id)) { return 'hasId'; }"
+            + "  if (c.findExactly >= 0) {"
+            + "    if (found.length !== c.findExactly) { return 'findExactly'; }"
+            + "  } else {"
+            + "    if (c.findAtLeast >= 0 && found.length < c.findAtLeast) { return 'findAtLeast'; }"
+            + "    if (c.findAtMost >= 0 && found.length > c.findAtMost) { return 'findAtMost'; }"
+            + "  }"
+            + "  return null;"
+            + "};"
+            + "var verdictsOf = function (criteria, settled) {"
+            + "  return criteria.map(function (c, i) {"
+            + "    if (settled && settled[i]) { return { name: c.name, failure: null }; }"
+            + "    var failure;"
+            + "    try {"
+            + "      failure = failureOf(c);"
+            + "      if (c.kind === 'FAILS_IF') { failure = failure === null ? 'failsIf' : null; }"
+            + "    } catch (e) { failure = 'error: ' + e.message; }"
+            + "    if (settled && failure === null && c.stable) { settled[i] = true; }"
+            + "    return { name: c.name, failure: failure };"
+            + "  });"
+            + "};"
+            + "var allSatisfied = function (verdicts) {"
+            + "  return verdicts.every(function (v) { return v.failure === null; });"
+            + "};"
+            + "var anyFailed = function (verdicts) {"
+            + "  return verdicts.some(function (v) { return v.failure === 'failsIf'; });"
+            + "};";
+
+    /**
+     * Adds notReady(readiness), which evaluates the script form of a {@link Readiness} and returns the name of the
+     * first signal that isn't idle, or null.
+     *
+     * Network traffic is counted by a shim around XMLHttpRequest and fetch that is installed on the window the first
+     * time it is needed, so requests that were sent before then aren't seen.  Animations that repeat forever, such
+     * as spinners, are never considered running.
+     */
+    static final String READINESS_HELPERS = ""
+            + "var network = function () {"
+            + "  if (window.__driverPagesNetwork) { return window.__driverPagesNetwork; }"
+            + "  var n = window.__driverPagesNetwork = { inFlight: 0, lastChange: new Date().getTime() };"
+            + "  var started = function () { n.inFlight++; n.lastChange = new Date().getTime(); };"
+            + "  var finished = function () {"
+            + "    n.inFlight = Math.max(0, n.inFlight - 1);"
+            + "    n.lastChange = new Date().getTime();"
+            + "  };"
+            + "  if (window.XMLHttpRequest) {"
+            + "    var send = XMLHttpRequest.prototype.send;"
+            + "    XMLHttpRequest.prototype.send = function () {"
+            + "      var done = false;"
+            + "      var end = function () { if (!done) { done = true; finished(); } };"
+            + "      started();"
+            + "      this.addEventListener('loadend', end);"
+            + "      try { return send.apply(this, arguments); } catch (e) { end(); throw e; }"
+            + "    };"
+            + "  }"
+            + "  if (window.fetch) {"
+            + "    var fetch = window.fetch;"
+            + "    window.fetch = function () {"
+            + "      started();"
+            + "      try {"
+            + "        return fetch.apply(window, arguments).then("
+            + "            function (response) { finished(); return response; },"
+            + "            function (error) { finished(); throw error; });"
+            + "      } catch (e) { finished(); throw e; }"
+            + "    };"
+            + "  }"
+            + "  return n;"
+            + "};"
+            + "var isRunning = function (a) {"
+            + "  var timing = a.effect && a.effect.getComputedTiming ? a.effect.getComputedTiming() : {};"
+            + "  return a.playState === 'running' && timing.iterations !== Infinity;"
+            + "};"
+            + "var notReady = function (r) {"
+            + "  if (r.documentComplete && document.readyState !== 'complete') { return 'documentComplete'; }"
+            + "  if (r.networkIdleMillis >= 0) {"
+            + "    var n = network();"
+            + "    if (n.inFlight > 0 || new Date().getTime() - n.lastChange < r.networkIdleMillis) {"
+            + "      return 'networkIdle';"
+            + "    }"
+            + "  }"
+            + "  if (r.animationsIdle && document.getAnimations && document.getAnimations().some(isRunning)) {"
+            + "    return 'animationsIdle';"
+            + "  }"
+            + "  return null;"
+            + "};";
+
+    /**
+     * Evaluates a {@link Readiness}.
+     *
+     * arguments[0] is the script form of the readiness.  Returns the name of the first signal that isn't idle, or
+     * null if the page is ready.
+     */
+    static final String READINESS = READINESS_HELPERS
+            + "return notReady(arguments[0]);";
+
+    /**
+     * Asynchronously polls a set of compiled {@link LoadCriterion}s inside the browser until all are satisfied, a
+     * failure criterion is met or the time limit passes.  Stable criteria are skipped once satisfied, and every
+     * criterion is checked again to confirm before reporting the page as loaded.
+     *
+     * arguments[0] is the list of compiled criteria, arguments[1] the polling interval in milliseconds,
+     * arguments[2] the time limit in milliseconds and arguments[3] the script form of a {@link Readiness} or null.
+     * The readiness is only checked once every criterion is satisfied.  The callback receives a map with the keys
+     * loaded, verdicts and readiness, the latter naming the signal that wasn't idle, if any.
+     */
+    static final String WAIT_UNTIL_LOADED = CRITERIA_HELPERS
+            + READINESS_HELPERS
+            + "var callback = arguments[arguments.length - 1];"
+            + "var criteria = arguments[0];"
+            + "var pollMillis = arguments[1];"
+            + "var deadline = new Date().getTime() + arguments[2];"
+            + "var readiness = arguments[3];"
+            + "var settled = criteria.map(function () { return false; });"
+            + "var poll = function () {"
+            + "  var anySettled = settled.some(function (s) { return s; });"
+            + "  var verdicts = verdictsOf(criteria, settled);"
+            + "  var loaded = allSatisfied(verdicts);"
+            + "  if (loaded && anySettled) {"
+            + "    verdicts = verdictsOf(criteria);"
+            + "    loaded = allSatisfied(verdicts);"
+            + "    verdicts.forEach(function (v, i) { if (v.failure !== null) { settled[i] = false; } });"
+            + "  }"
+            + "  var waitingFor = null;"
+            + "  if (loaded && readiness) {"
+            + "    waitingFor = notReady(readiness);"
+            + "    loaded = waitingFor === null;"
+            + "  }"
+            + "  if (loaded || anyFailed(verdicts) || new Date().getTime() >= deadline) {"
+            + "    callback({ loaded: loaded, verdicts: verdicts, readiness: waitingFor });"
+            + "  } else {"
+            + "    setTimeout(poll, pollMillis);"
+            + "  }"
+            + "};"
+            + "poll();";
+
+    /**
+     * Adds matches(element, condition), which evaluates the script form of an {@link ElementCondition}.
+     */
+    static final String CONDITION_HELPERS = HELPERS
+            + "var matches = function (e, c) {"
+            + "  switch (c.op) {"
+            + "    case 'present': return true;"
+            + "    case 'visible': return isDisplayed(e);"
+            + "    case 'textEquals': return textOf(e) === c.value;"
+            + "    case 'textContains': return textOf(e).indexOf(c.value) >= 0;"
+            + "    case 'attributeEquals': return attributeOf(e, c.name) === c.value;"
+            + "    case 'textMatches': return new RegExp(c.value).test(textOf(e));"
+            + "    case 'hasClass': return (e.getAttribute('class') || '').trim().split(/\\s+/).indexOf(c.value) >= 0;"
+            + "    case 'and': return c.conditions.every(function (inner) { return matches(e, inner); });"
+            + "    case 'or': return c.conditions.some(function (inner) { return matches(e, inner); });"
+            + "    case 'not': return !matches(e, c.condition);"
+            + "  }"
+            + "  throw new Error('Unsupported condition: ' + c.op);"
+            + "};";
+
+    /**
+     * Asynchronously waits for an element matching a condition, re-evaluating only when a MutationObserver reports
+     * a change to the document.  A slow periodic re-check catches changes that aren't mutations, such as styles
+     * applied by media queries.
+     *
+     * arguments[0] is the locator type, arguments[1] the locator, arguments[2] the script form of an
+     * {@link ElementCondition}, arguments[3] whether only the first located element is considered, arguments[4] the
+     * time limit in milliseconds and arguments[5] the periodic re-check interval in milliseconds.  The callback
+     * receives a map with the key element, which is null if the time ran out, or the key error.
+     */
+    static final String AWAIT_CONDITION = CONDITION_HELPERS
+            + "var callback = arguments[arguments.length - 1];"
+            + "var type = arguments[0];"
+            + "var locator = arguments[1];"
+            + "var condition = arguments[2];"
+            + "var firstOnly = arguments[3];"
+            + "var finished = false;"
+            + "var observer = null;"
+            + "var timer = null;"
+            + "var recheck = null;"
+            + "var finish = function (result) {"
+            + "  if (finished) { return; }"
+            + "  finished = true;"
+            + "  if (observer) { observer.disconnect(); }"
+            + "  clearTimeout(timer);"
+            + "  clearInterval(recheck);"
+            + "  callback(result);"
+            + "};"
+            + "var check = function () {"
+            + "  try {"
+            + "    var found = locate(type, locator);"
+            + "    if (firstOnly) { found = found.slice(0, 1); }"
+            + "    for (var i = 0; i < found.length; i++) {"
+            + "      if (matches(found[i], condition)) { return finish({ element: found[i] }); }"
+            + "    }"
+            + "  } catch (e) {"
+            + "    finish({ element: null, error: e.message });"
+            + "  }"
+            + "};"
+            + "check();"
+            + "if (!finished) {"
+            + "  observer = new MutationObserver(check);"
+            + "  observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+            + "  timer = setTimeout(function () { finish({ element: null }); }, arguments[4]);"
+            + "  recheck = setInterval(check, arguments[5]);"
+            + "}";
+
+    /**
+     * Locates elements and keeps those matching the script form of an {@link ElementCondition}.
+     *
+     * arguments[0] is the locator type, arguments[1] the locator, arguments[2] the condition and arguments[3]
+     * whether to stop at the first match.  Returns the list of matching elements in document order.
+     */
+    static final String FILTER = CONDITION_HELPERS
+            + "var found = locate(arguments[0], arguments[1]);"
+            + "var condition = arguments[2];"
+            + "var firstOnly = arguments[3];"
+            + "var kept = [];"
+            + "for (var i = 0; i < found.length; i++) {"
+            + "  if (matches(found[i], condition)) {"
+            + "    kept.push(found[i]);"
+            + "    if (firstOnly) { break; }"
+            + "  }"
+            + "}"
+            + "return kept;";
+
+    /**
+     * Finds the first element matching a condition for many locators at once.
+     *
+     * arguments[0] is a list of queries, each query being a list of [type, locator, condition] where the condition
+     * is the script form of an {@link ElementCondition}.  Returns a list with the first matching element of each
+     * query, or null where no element matches.
+     */
+    static final String FIRST_MATCHES = CONDITION_HELPERS
+            + "return arguments[0].map(function (query) {"
+            + "  var found = locate(query[0], query[1]);"
+            + "  for (var i = 0; i < found.length; i++) {"
+            + "    if (matches(found[i], query[2])) { return found[i]; }"
+            + "  }"
+            + "  return null;"
+            + "});";
+
+    /**
+     * Reads several fields from every row located by a locator.
+     *
+     * arguments[0] is the row locator type, arguments[1] the row locator and arguments[2] a list of fields, each
+     * being a list of [type, locator, attribute name or null for the text].  Fields are located relative to their
+     * row.  Returns a list with one list of values per row, where a value is null if the field's element is absent.
+     */
+    static final String EXTRACT = HELPERS
+            + "var fields = arguments[2];"
+            + "return locate(arguments[0], arguments[1]).map(function (row) {"
+            + "  return fields.map(function (f) {"
+            + "    var e = locate(f[0], f[1], row)[0];"
+            + "    if (!e) { return null; }"
+            + "    return f[2] === null ? textOf(e) : attributeOf(e, f[2]);"
+            + "  });"
+            + "});";
+
+    /**
+     * Returns the mutation epoch of the current document, installing the observer that maintains it on first use.
+     * The epoch is a random id unique to the document followed by the number of mutation batches observed, so it
+     * changes whenever the DOM changes or the document is replaced.
+     */
+    static final String DOM_EPOCH = ""
+            + "var epoch = window.__driverPagesEpoch;"
+            + "if (!epoch) {"
+            + "  epoch = window.__driverPagesEpoch = {"
+            + "    id: new Date().getTime().toString(36) + Math.random().toString(36).slice(2),"
+            + "    count: 0"
+            + "  };"
+            + "  new MutationObserver(function () { epoch.count++; })"
+            + "      .observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+            + "}"
+            + "return epoch.id + ':' + epoch.count;";
+
+    private BrowserScripts() {
+    }
+}
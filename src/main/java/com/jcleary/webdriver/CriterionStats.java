@@ -0,0 +1,234 @@
+package com.jcleary.webdriver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The observed cost and failure rate of each load criterion, used to decide the order in which criteria are checked.
+ * When checking stops at the first unsatisfied criterion, the expected cost of a check is lowest when the criteria
+ * are ordered by their cost divided by their chance to fail, so cheap criteria that are likely to fail come first.
+ *
+ * Only the order within loaders and within ordinary criteria changes.  Failure criteria are always checked first,
+ * followed by loaders, followed by ordinary criteria.  Criteria with too few samples are checked before the others,
+ * in their declared order, so that a criterion behind one that keeps failing still gets observed.
+ *
+ * Statistics are kept for the lifetime of the JVM.  To keep them across runs, set the system property
+ * {@value #FILE_PROPERTY} to a file path.  The file is read when this class is first used and written when the JVM
+ * shuts down.
+ */
+public final class CriterionStats {
+
+    /**
+     * The system property naming the file the statistics are kept in across runs.
+     */
+    public static final String FILE_PROPERTY = "driverpages.criterionStats";
+
+    /**
+     * The number of samples of a criterion that are required before it is ordered by its statistics.
+     */
+    static final int MIN_SAMPLES = 10;
+
+    /**
+     * How much weight a new sample has in the moving averages.
+     */
+    private static final double WEIGHT = 0.1;
+
+    /**
+     * Criteria that never failed are treated as if they occasionally do, so that their cost still matters.
+     */
+    private static final double MIN_FAILURE_RATE = 0.01;
+
+    private static final ConcurrentMap<String, Stat> STATS = new ConcurrentHashMap<>();
+
+    static {
+        String file = System.getProperty(FILE_PROPERTY);
+
+        if (file != null && !file.isEmpty()) {
+            Path path = Paths.get(file);
+
+            try {
+                load(path);
+            } catch (IOException | RuntimeException e) {
+                // A missing or unreadable file only means starting without statistics.
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    save(path);
+                } catch (IOException e) {
+                    // Nothing is left to report to at shutdown, the statistics are simply gathered again.
+                }
+            }, "criterion-stats"));
+        }
+    }
+
+    /**
+     * The statistics of a single criterion.
+     */
+    static final class Stat {
+
+        private long samples;
+        private double costNanos;
+        private double failureRate;
+
+        synchronized void record(long nanos, boolean failed) {
+            if (samples == 0) {
+                costNanos = nanos;
+                failureRate = failed ? 1.0 : 0.0;
+            } else {
+                costNanos += WEIGHT * (nanos - costNanos);
+                failureRate += WEIGHT * ((failed ? 1.0 : 0.0) - failureRate);
+            }
+            samples++;
+        }
+
+        synchronized void clear() {
+            samples = 0;
+            costNanos = 0.0;
+            failureRate = 0.0;
+        }
+
+        synchronized long getSamples() {
+            return samples;
+        }
+
+        synchronized double getCostNanos() {
+            return costNanos;
+        }
+
+        synchronized double getFailureRate() {
+            return failureRate;
+        }
+
+        /**
+         * @return                          The cost paid per failure found, lower should be checked earlier.  Zero
+         *                                  until there are enough samples, so that the criterion is checked early
+         *                                  enough to be observed
+         */
+        synchronized double rank() {
+            return samples < MIN_SAMPLES ? 0.0 : costNanos / Math.max(failureRate, MIN_FAILURE_RATE);
+        }
+
+        private synchronized String write() {
+            return samples + "," + costNanos + "," + failureRate;
+        }
+
+        private synchronized void read(String value) {
+            String[] parts = value.split(",");
+            samples = Long.parseLong(parts[0]);
+            costNanos = Double.parseDouble(parts[1]);
+            failureRate = Double.parseDouble(parts[2]);
+        }
+    }
+
+    private CriterionStats() {
+    }
+
+    /**
+     * @param type                          The Loadable class declaring the criterion
+     * @param name                          The name of the annotated field
+     * @param kind                          The kind of criterion, a field may declare more than one
+     *
+     * @return                              The statistics of the criterion, shared by every instance of the class
+     */
+    static Stat of(Class<?> type, String name, LoadCriterion.Kind kind) {
+        return STATS.computeIfAbsent(type.getName() + "#" + name + "#" + kind, key -> new Stat());
+    }
+
+    /**
+     * Decide the order to check the entries in.
+     *
+     * @param entries                       Entries grouped by kind, failure criteria first, then loaders
+     *
+     * @return                              The indexes of the entries in the order they should be checked
+     */
+    static List<Integer> order(List<LoadCriteria.Entry> entries) {
+        List<Integer> order = new ArrayList<>(entries.size());
+        int start = 0;
+
+        while (start < entries.size()) {
+            LoadCriterion.Kind kind = entries.get(start).criterion.getKind();
+            int end = start;
+
+            while (end < entries.size() && entries.get(end).criterion.getKind() == kind) {
+                end++;
+            }
+
+            List<Integer> group = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                group.add(i);
+            }
+
+            if (kind != LoadCriterion.Kind.FAILS_IF) {
+                group.sort(Comparator.comparingDouble(i -> entries.get(i).stat.rank()));
+            }
+            order.addAll(group);
+            start = end;
+        }
+        return order;
+    }
+
+    /**
+     * Read statistics that were saved by {@link #save(Path)}, replacing those of the same criteria.  A file that
+     * doesn't exist is ignored.
+     *
+     * @param path                          The file to read
+     *
+     * @exception IOException               If the file can't be read
+     */
+    public static void load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                STATS.computeIfAbsent(key, k -> new Stat()).read(properties.getProperty(key));
+            } catch (RuntimeException e) {
+                STATS.get(key).clear();
+            }
+        }
+    }
+
+    /**
+     * Write the statistics of every criterion observed so far.
+     *
+     * @param path                          The file to write
+     *
+     * @exception IOException               If the file can't be written
+     */
+    public static void save(Path path) throws IOException {
+        Properties properties = new Properties();
+
+        for (Map.Entry<String, Stat> stat : STATS.entrySet()) {
+            properties.setProperty(stat.getKey(), stat.getValue().write());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Load criterion statistics: samples,cost in nanoseconds,failure rate");
+        }
+    }
+
+    /**
+     * Forget every statistic gathered so far.
+     */
+    public static void reset() {
+        STATS.values().forEach(Stat::clear);
+    }
+}
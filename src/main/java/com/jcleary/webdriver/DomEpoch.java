@@ -0,0 +1,65 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Identifies a version of the page a {@link State} is on.  Two equal epochs mean that neither the DOM changed, nor
+ * the browser navigated, nor was an element interacted with in between, so anything read from the page at the
+ * first epoch is still accurate at the second.
+ *
+ * Changes that aren't DOM mutations, such as styles applied by hovering or resizing the window, aren't detected.
+ * Neither are changes to properties such as the value of a text field, see {@link #isPropertyBacked(String)}.
+ */
+final class DomEpoch {
+
+    /**
+     * Attributes that WebElement#getAttribute answers from the element's live property, such as the value of a text
+     * field or the checked state of a checkbox.  Typing, clicking and scripts change these properties without
+     * mutating the DOM, so an epoch says nothing about whether they changed.
+     */
+    private static final Set<String> PROPERTY_BACKED = new HashSet<>(Arrays.asList(
+            "value", "checked", "selected", "indeterminate", "disabled", "readonly", "required", "multiple",
+            "hidden", "open", "muted", "paused", "ended", "seeking", "loop", "autoplay", "controls", "complete",
+            "defaultchecked", "defaultselected", "iscontenteditable", "willvalidate", "spellcheck", "draggable"));
+
+    private DomEpoch() {
+    }
+
+    /**
+     * Read the current epoch with a single, cheap script call.
+     *
+     * @param state                         The state whose page to read the epoch of
+     *
+     * @return                              The epoch, or null if the driver can't execute JavaScript
+     */
+    static String of(State state) {
+        WebDriver driver = state.getDriver();
+
+        if (!(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object epoch = ((JavascriptExecutor) driver).executeScript(BrowserScripts.DOM_EPOCH);
+
+        if (epoch == null) {
+            return null;
+        }
+        return epoch + "/" + state.getNavigationCount() + "/" + state.getInteractionCount();
+    }
+
+    /**
+     * @param attribute                     The name of an attribute
+     *
+     * @return                              True if the attribute is read from a property that can change without a
+     *                                      DOM mutation, so it must not be reused across reads at the same epoch
+     */
+    static boolean isPropertyBacked(String attribute) {
+        return PROPERTY_BACKED.contains(attribute.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,203 @@
+package com.jcleary.webdriver;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A predicate on a WebElement that also knows how to describe itself to the browser.  Selectors use the description
+ * to evaluate the condition inside the page instead of fetching every element and testing it in Java.  Any other
+ * {@link Predicate} can still be used wherever a condition is accepted, it just can't leave the JVM.
+ */
+public final class ElementCondition implements Predicate<WebElement> {
+
+    private final String description;
+    private final Predicate<WebElement> predicate;
+    private final Map<String, Object> script;
+
+    private ElementCondition(String description, Predicate<WebElement> predicate, Map<String, Object> script) {
+        this.description = description;
+        this.predicate = predicate;
+        this.script = Collections.unmodifiableMap(script);
+    }
+
+    /**
+     * @return                              A condition satisfied by any element that exists
+     */
+    public static ElementCondition present() {
+        return new ElementCondition("present", e -> true, spec("present"));
+    }
+
+    /**
+     * @return                              A condition satisfied by elements visible to the user
+     */
+    public static ElementCondition visible() {
+        return new ElementCondition("visible", WebElement::isDisplayed, spec("visible"));
+    }
+
+    /**
+     * @param text                          The exact visible text
+     *
+     * @return                              A condition satisfied by elements whose visible text equals the text
+     */
+    public static ElementCondition textEquals(String text) {
+        Map<String, Object> script = spec("textEquals");
+        script.put("value", text);
+        return new ElementCondition("text equals '" + text + "'", e -> text.equals(e.getText()), script);
+    }
+
+    /**
+     * @param text                          A fragment of the visible text
+     *
+     * @return                              A condition satisfied by elements whose visible text contains the text
+     */
+    public static ElementCondition textContains(String text) {
+        Map<String, Object> script = spec("textContains");
+        script.put("value", text);
+        return new ElementCondition("text contains '" + text + "'", e -> e.getText().contains(text), script);
+    }
+
+    /**
+     * @param name                          The attribute name
+     * @param value                         The exact attribute value
+     *
+     * @return                              A condition satisfied by elements whose attribute equals the value
+     */
+    public static ElementCondition attributeEquals(String name, String value) {
+        Map<String, Object> script = spec("attributeEquals");
+        script.put("name", name);
+        script.put("value", value);
+        return new ElementCondition("attribute " + name + " equals '" + value + "'",
+                e -> value.equals(e.getAttribute(name)), script);
+    }
+
+    /**
+     * The expression is evaluated with Java's regular expressions in the JVM and JavaScript's in the browser, so
+     * stick to the syntax both understand.
+     *
+     * @param regex                         A regular expression found anywhere in the visible text
+     *
+     * @return                              A condition satisfied by elements whose visible text contains a match
+     */
+    public static ElementCondition textMatches(String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        Map<String, Object> script = spec("textMatches");
+        script.put("value", regex);
+        return new ElementCondition("text matches /" + regex + "/", e -> pattern.matcher(e.getText()).find(), script);
+    }
+
+    /**
+     * @param cssClass                      A single css class name
+     *
+     * @return                              A condition satisfied by elements that have the css class
+     */
+    public static ElementCondition hasClass(String cssClass) {
+        Map<String, Object> script = spec("hasClass");
+        script.put("value", cssClass);
+        return new ElementCondition("has class '" + cssClass + "'", e -> {
+            String classes = e.getAttribute("class");
+            return classes != null && Arrays.asList(classes.trim().split("\\s+")).contains(cssClass);
+        }, script);
+    }
+
+    /**
+     * @param conditions                    The conditions that must all be satisfied
+     *
+     * @return                              A condition satisfied when every one of the conditions is
+     */
+    public static ElementCondition allOf(ElementCondition...conditions) {
+        return combine("and", conditions, Predicate::and);
+    }
+
+    /**
+     * @param conditions                    The conditions of which at least one must be satisfied
+     *
+     * @return                              A condition satisfied when any one of the conditions is
+     */
+    public static ElementCondition anyOf(ElementCondition...conditions) {
+        return combine("or", conditions, Predicate::or);
+    }
+
+    /**
+     * @param condition                     The condition to invert
+     *
+     * @return                              A condition satisfied when the condition isn't
+     */
+    public static ElementCondition not(ElementCondition condition) {
+        Map<String, Object> script = spec("not");
+        script.put("condition", condition.script);
+        return new ElementCondition("not (" + condition + ")", condition.predicate.negate(), script);
+    }
+
+    /**
+     * Like {@link Predicate#and(Predicate)}, but the result can still be evaluated inside the browser.
+     */
+    public ElementCondition and(ElementCondition other) {
+        return allOf(this, other);
+    }
+
+    /**
+     * Like {@link Predicate#or(Predicate)}, but the result can still be evaluated inside the browser.
+     */
+    public ElementCondition or(ElementCondition other) {
+        return anyOf(this, other);
+    }
+
+    @Override
+    public ElementCondition negate() {
+        return not(this);
+    }
+
+    @Override
+    public boolean test(WebElement element) {
+        return predicate.test(element);
+    }
+
+    /**
+     * @return                              The condition as understood by {@link BrowserScripts#CONDITION_HELPERS}
+     */
+    Map<String, Object> toScript() {
+        return script;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static ElementCondition combine(String op, ElementCondition[] conditions,
+                                            BinaryOperator<Predicate<WebElement>> combiner) {
+        if (conditions.length == 0) {
+            throw new IllegalArgumentException("At least one condition is required.");
+        }
+        Predicate<WebElement> predicate = conditions[0].predicate;
+        List<Map<String, Object>> scripts = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+
+        for (int i = 0; i < conditions.length; i++) {
+            if (i > 0) {
+                predicate = combiner.apply(predicate, conditions[i].predicate);
+            }
+            scripts.add(conditions[i].script);
+            descriptions.add(conditions[i].description);
+        }
+
+        Map<String, Object> script = spec(op);
+        script.put("conditions", scripts);
+        return new ElementCondition("(" + String.join(" " + op + " ", descriptions) + ")", predicate, script);
+    }
+
+    private static Map<String, Object> spec(String op) {
+        Map<String, Object> script = new HashMap<>();
+        script.put("op", op);
+        return script;
+    }
+}
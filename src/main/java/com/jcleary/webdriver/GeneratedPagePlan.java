@@ -0,0 +1,65 @@
+package com.jcleary.webdriver;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Implemented by the companion classes generated by {@link com.jcleary.webdriver.processors.PageProcessor}.  A
+ * companion carries the load criteria and url meta-data of one page class as plain code so that neither has to be
+ * discovered through reflection at runtime.
+ *
+ * A companion of {@code com.example.FrontPage} is named {@code com.example.FrontPage_PagePlan}, and nested classes
+ * have their enclosing class names prepended, such as {@code com.example.Site_FrontPage_PagePlan}.
+ */
+public interface GeneratedPagePlan {
+
+    /**
+     * Appended to the flattened class name of a page to name its companion class.
+     */
+    String SUFFIX = "_PagePlan";
+
+    /**
+     * @return                              The uninterpolated host of the closest class in the hierarchy declaring
+     *                                      one, followed by its port unless it's the default.  Null if there is none
+     */
+    String hostTemplate();
+
+    /**
+     * @return                              The relative path built from the whole class hierarchy
+     */
+    String relativePath();
+
+    /**
+     * @return                              The annotated Selector fields declared by the page class itself,
+     *                                      excluding any inherited ones
+     */
+    List<Field> declaredFields();
+
+    /**
+     * A single annotated Selector field with a direct accessor.
+     */
+    final class Field {
+
+        private final String name;
+        private final Function<Object, Object> accessor;
+        private final LoadCriterion criterion;
+
+        public Field(String name, Function<Object, Object> accessor, LoadCriterion criterion) {
+            this.name = name;
+            this.accessor = accessor;
+            this.criterion = criterion;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Function<Object, Object> getAccessor() {
+            return accessor;
+        }
+
+        public LoadCriterion getCriterion() {
+            return criterion;
+        }
+    }
+}
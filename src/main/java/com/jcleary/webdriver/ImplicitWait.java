@@ -0,0 +1,50 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Runs checks that expect elements to possibly be absent with the implicit wait of their {@link State}s suspended,
+ * so that a missing element is reported immediately instead of after the full implicit wait.
+ */
+final class ImplicitWait {
+
+    private ImplicitWait() {
+    }
+
+    static <T> T suspended(State state, Supplier<T> check) {
+        return suspended(Collections.singleton(state), check);
+    }
+
+    /**
+     * @param states                        The states to suspend the implicit wait of, each only once
+     * @param check                         The check to run
+     *
+     * @return                              The result of the check
+     */
+    static <T> T suspended(Collection<State> states, Supplier<T> check) {
+        Set<State> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<State> suspended = new ArrayList<>();
+
+        try {
+            for (State state : states) {
+                if (distinct.add(state)) {
+                    state.suspendImplicitWait();
+                    suspended.add(state);
+                }
+            }
+            return check.get();
+        } finally {
+            for (State state : suspended) {
+                state.resumeImplicitWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.util.Ternary;
+
+import java.util.List;
+
+/**
+ * Evaluates the criteria of a {@link Loadable} repeatedly over the course of a single wait.  Once a stable criterion
+ * is satisfied it isn't checked again, so each attempt only checks the criteria that are still unsatisfied along with
+ * loaders, failure criteria and criteria declared with {@link Loadable.IsLoaded#mayRegress()}.  Each attempt stops at
+ * the first criterion that isn't satisfied.
+ *
+ * When every criterion appears to be satisfied, all of them are checked once more to confirm.  Any that regressed
+ * are checked on every attempt again.
+ */
+final class IncrementalLoad {
+
+    private final Loadable loadable;
+    private final LoadCriteria criteria;
+    private final boolean[] settled;
+
+    IncrementalLoad(Loadable loadable, LoadCriteria criteria) {
+        this.loadable = loadable;
+        this.criteria = criteria;
+        this.settled = new boolean[criteria.entries().size()];
+    }
+
+    /**
+     * Evaluate the criteria that aren't settled yet.
+     *
+     * @return                              The report of this attempt.  Only confirmed by checking every criterion
+     *                                      if its state is {@link Ternary#TRUE}
+     */
+    LoadReport next() {
+        boolean anySettled = settledCount() > 0;
+        LoadReport report = criteria.evaluate(loadable, false, settled);
+
+        if (report.getState() != Ternary.TRUE || !anySettled) {
+            return report;
+        }
+
+        LoadReport confirmation = criteria.evaluate(loadable, true);
+
+        if (confirmation.getState() == Ternary.TRUE) {
+            return confirmation;
+        }
+
+        List<LoadReport.Verdict> verdicts = confirmation.getVerdicts();
+
+        for (int i = 0; i < Math.min(settled.length, verdicts.size()); i++) {
+            if (!verdicts.get(i).isSatisfied()) {
+                settled[i] = false;
+            }
+        }
+        return confirmation;
+    }
+
+    /**
+     * @return                              The number of criteria that currently don't need to be checked
+     */
+    int settledCount() {
+        int count = 0;
+
+        for (boolean s : settled) {
+            count += s ? 1 : 0;
+        }
+        return count;
+    }
+}
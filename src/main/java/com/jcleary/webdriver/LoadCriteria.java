@@ -0,0 +1,229 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import com.jcleary.util.Ternary;
+import com.jcleary.webdriver.wait.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every annotated {@link Selector} of a {@link Loadable} instance paired with the criteria declared on it.  Failure
+ * criteria are ordered first, then loader criteria, then ordinary criteria.
+ */
+final class LoadCriteria {
+
+    /**
+     * A single annotated Selector field.
+     */
+    static final class Entry {
+
+        final String name;
+        final Selector selector;
+        final LoadCriterion criterion;
+        final CriterionStats.Stat stat;
+
+        Entry(String name, Selector selector, LoadCriterion criterion, CriterionStats.Stat stat) {
+            this.name = name;
+            this.selector = selector;
+            this.criterion = criterion;
+            this.stat = stat;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    LoadCriteria(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return                              The state of each Selector, in the order of the entries
+     */
+    List<State> states() {
+        List<State> states = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            states.add(entry.selector.getState());
+        }
+        return states;
+    }
+
+    /**
+     * Evaluate the criteria once, failing before any Selector is read if the Loadable reports a failure through
+     * {@link Loadable#failedBecause()}.
+     *
+     * @param loadable                      The instance the criteria were read from
+     * @param complete                      True to evaluate every criterion, false to stop at the first one that
+     *                                      isn't satisfied
+     *
+     * @return                              The report of this evaluation
+     */
+    LoadReport evaluate(Loadable loadable, boolean complete) {
+        return evaluate(loadable, complete, null);
+    }
+
+    /**
+     * Evaluate the criteria once, skipping the criteria that are already settled.
+     *
+     * @param loadable                      The instance the criteria were read from
+     * @param complete                      True to evaluate every criterion in their declared order, false to stop
+     *                                      at the first one that isn't satisfied, checking them in the order
+     *                                      decided by {@link CriterionStats}
+     * @param settled                       Flags the entries that are skipped and considered satisfied.  Stable
+     *                                      criteria that are satisfied by this evaluation are flagged as well.  May
+     *                                      be null to evaluate every entry
+     *
+     * @return                              The report of this evaluation
+     */
+    LoadReport evaluate(Loadable loadable, boolean complete, boolean[] settled) {
+        Optional<String> failedBecause = loadable.failedBecause();
+
+        if (failedBecause.isPresent()) {
+            return new LoadReport(Ternary.FALSE, failedBecause.get(), Collections.emptyList());
+        }
+
+        try (QueryContext context = QueryContext.open()) {
+            return ImplicitWait.suspended(states(), () -> {
+                LoadReport.Verdict[] verdicts = new LoadReport.Verdict[entries.size()];
+
+                for (int i : complete ? declaredOrder() : CriterionStats.order(entries)) {
+                    Entry entry = entries.get(i);
+
+                    if (settled != null && settled[i]) {
+                        verdicts[i] = new LoadReport.Verdict(entry.name, entry.selector, null);
+                        continue;
+                    }
+
+                    long start = System.nanoTime();
+                    String verdict = entry.criterion.verdict(entry.selector);
+                    entry.stat.record(System.nanoTime() - start, verdict != null);
+                    verdicts[i] = new LoadReport.Verdict(entry.name, entry.selector, verdict);
+
+                    if (settled != null && verdict == null && entry.criterion.isStable()) {
+                        settled[i] = true;
+                    }
+
+                    if (verdict != null && (!complete || LoadCriterion.FAILED.equals(verdict))) {
+                        break;
+                    }
+                }
+
+                List<Entry> evaluated = new ArrayList<>(entries.size());
+                List<LoadReport.Verdict> evaluatedVerdicts = new ArrayList<>(entries.size());
+
+                for (int i = 0; i < verdicts.length; i++) {
+                    if (verdicts[i] != null) {
+                        evaluated.add(entries.get(i));
+                        evaluatedVerdicts.add(verdicts[i]);
+                    }
+                }
+                LoadReport report = report(evaluated, evaluatedVerdicts);
+
+                if (report.getState() == Ternary.TRUE) {
+                    return waitingFor(report, loadable.readiness().check(stateOf(loadable)));
+                }
+                return report;
+            });
+        }
+    }
+
+    /**
+     * Judge the verdicts of every entry.  The page failed if any failure criterion was met, and loaded only if every
+     * criterion was satisfied.
+     *
+     * @param verdicts                      The verdicts of the entries, in the order of the entries
+     *
+     * @return                              The report of the verdicts
+     */
+    LoadReport report(List<LoadReport.Verdict> verdicts) {
+        return report(entries.subList(0, Math.min(verdicts.size(), entries.size())), verdicts);
+    }
+
+    /**
+     * @param evaluated                     The entries that were evaluated, possibly not all of them
+     * @param verdicts                      The verdicts of the evaluated entries, in the same order
+     */
+    private LoadReport report(List<Entry> evaluated, List<LoadReport.Verdict> verdicts) {
+        boolean loaded = evaluated.size() == entries.size();
+
+        for (int i = 0; i < verdicts.size(); i++) {
+            Entry entry = evaluated.get(i);
+            String failure = verdicts.get(i).getFailure();
+
+            if (LoadCriterion.FAILED.equals(failure) && entry.criterion.getKind() == LoadCriterion.Kind.FAILS_IF) {
+                return new LoadReport(Ternary.FALSE, entry.criterion.reasonFor(entry.name), verdicts);
+            }
+            loaded &= failure == null;
+        }
+        return new LoadReport(loaded ? Ternary.TRUE : Ternary.UNKNOWN, null, verdicts);
+    }
+
+    /**
+     * Hold back a report until the readiness signals are idle.
+     *
+     * @param report                        The report of the criteria
+     * @param notReady                      The name of the signal that isn't idle, or null if the page is ready
+     *
+     * @return                              The report, or a report that the page is still loading with a verdict
+     *                                      named 'readiness' for the signal
+     */
+    static LoadReport waitingFor(LoadReport report, String notReady) {
+        if (notReady == null || report.getState() != Ternary.TRUE) {
+            return report;
+        }
+        List<LoadReport.Verdict> verdicts = new ArrayList<>(report.getVerdicts());
+        verdicts.add(new LoadReport.Verdict("readiness", null, notReady));
+        return new LoadReport(Ternary.UNKNOWN, null, verdicts);
+    }
+
+    /**
+     * @param loadable                      A Loadable
+     *
+     * @return                              The key its load waits are known by to a {@link WaitStrategy}, kept apart
+     *                                      from the page's other waits so that their timing is learned separately
+     */
+    static String waitKey(Loadable loadable) {
+        return loadable.getClass().getName() + "#load";
+    }
+
+    /**
+     * @param loadable                      The instance the criteria were read from
+     *
+     * @return                              The State of the page, or null if there is no way to tell
+     */
+    State stateOf(Loadable loadable) {
+        if (loadable instanceof Page) {
+            return ((Page) loadable).getState();
+        }
+        return entries.isEmpty() ? null : entries.get(0).selector.getState();
+    }
+
+    private List<Integer> declaredOrder() {
+        List<Integer> order = new ArrayList<>(entries.size());
+
+        for (int i = 0; i < entries.size(); i++) {
+            order.add(i);
+        }
+        return order;
+    }
+
+    /**
+     * Read all {@link Selector} instance fields of a Loadable that are annotated with {@link Loadable.IsLoaded},
+     * {@link Loadable.Loader} or {@link Loadable.FailsIf}.  The class itself is only scanned once, see
+     * {@link LoadPlan}.
+     *
+     * @param loadable                      The instance to read
+     *
+     * @return                              The criteria of the instance
+     */
+    static LoadCriteria of(Loadable loadable) {
+        return LoadPlan.of(loadable.getClass()).bind(loadable);
+    }
+}
@@ -0,0 +1,249 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.util.Ternary;
+
+import java.util.Arrays;
+
+import static com.jcleary.util.Ternary.TRUE;
+import static com.jcleary.util.Ternary.UNKNOWN;
+
+/**
+ * The criteria declared by a {@link Loadable.IsLoaded}, {@link Loadable.Loader} or {@link Loadable.FailsIf}
+ * annotation, decoupled from the annotation so that they can be evaluated in Java or compiled into a script that runs
+ * inside the browser.
+ */
+public final class LoadCriterion {
+
+    /**
+     * The verdict of a {@link Kind#FAILS_IF} criterion that is met.
+     */
+    static final String FAILED = "failsIf";
+
+    /**
+     * Whether the criterion was declared by a {@link Loadable.FailsIf}, a {@link Loadable.Loader} or by a
+     * {@link Loadable.IsLoaded} annotation.  Failure criteria are always evaluated first, then loaders.
+     */
+    public enum Kind { FAILS_IF, LOADER, IS_LOADED }
+
+    private final Kind kind;
+    private final Ternary presence;
+    private final Ternary visibility;
+    private final String containsText;
+    private final String[] cssClasses;
+    private final String id;
+    private final int findAtLeast;
+    private final int findAtMost;
+    private final int findExactly;
+    private final String reason;
+    private final boolean mayRegress;
+
+    private LoadCriterion(Kind kind, Ternary presence, Ternary visibility, String containsText, String[] cssClasses,
+                          String id, int findAtLeast, int findAtMost, int findExactly, String reason,
+                          boolean mayRegress) {
+        this.kind = kind;
+        this.presence = presence;
+        this.visibility = visibility;
+        this.containsText = containsText == null ? "" : containsText;
+        this.cssClasses = cssClasses == null || cssClasses.length == 1 && cssClasses[0].isEmpty()
+                ? new String[0]
+                : cssClasses.clone();
+        this.id = id == null ? "" : id;
+        this.findAtLeast = findAtLeast;
+        this.findAtMost = findAtMost;
+        this.findExactly = findExactly;
+        this.reason = reason == null ? "" : reason;
+        this.mayRegress = mayRegress;
+    }
+
+    public static LoadCriterion of(Loadable.IsLoaded isLoaded) {
+        return isLoaded(isLoaded.presence(), isLoaded.visibility(), isLoaded.containsText(),
+                isLoaded.containsCssClasses(), isLoaded.hasId(), isLoaded.findAtLeast(), isLoaded.findAtMost(),
+                isLoaded.findExactly(), isLoaded.mayRegress());
+    }
+
+    public static LoadCriterion of(Loadable.Loader loader) {
+        return loader(loader.presentOnFinish(), loader.visibleOnFinish());
+    }
+
+    public static LoadCriterion of(Loadable.FailsIf failsIf) {
+        return failsIf(failsIf.presence(), failsIf.visibility(), failsIf.containsText(), failsIf.reason());
+    }
+
+    /**
+     * The equivalent of a {@link Loadable.IsLoaded} annotation.  Refer to the annotation for each parameter.
+     */
+    public static LoadCriterion isLoaded(Ternary presence, Ternary visibility, String containsText,
+                                         String[] cssClasses, String id, int findAtLeast, int findAtMost,
+                                         int findExactly) {
+        return isLoaded(presence, visibility, containsText, cssClasses, id, findAtLeast, findAtMost, findExactly,
+                false);
+    }
+
+    /**
+     * The equivalent of a {@link Loadable.IsLoaded} annotation.  Refer to the annotation for each parameter.
+     */
+    public static LoadCriterion isLoaded(Ternary presence, Ternary visibility, String containsText,
+                                         String[] cssClasses, String id, int findAtLeast, int findAtMost,
+                                         int findExactly, boolean mayRegress) {
+        return new LoadCriterion(Kind.IS_LOADED, presence, visibility, containsText, cssClasses, id,
+                findAtLeast, findAtMost, findExactly, "", mayRegress);
+    }
+
+    /**
+     * The equivalent of a {@link Loadable.Loader} annotation.  Refer to the annotation for each parameter.
+     */
+    public static LoadCriterion loader(Ternary presentOnFinish, Ternary visibleOnFinish) {
+        return new LoadCriterion(Kind.LOADER, presentOnFinish, visibleOnFinish, "", null, "", -1, -1, -1, "", true);
+    }
+
+    /**
+     * The equivalent of a {@link Loadable.FailsIf} annotation.  Refer to the annotation for each parameter.
+     */
+    public static LoadCriterion failsIf(Ternary presence, Ternary visibility, String containsText, String reason) {
+        return new LoadCriterion(Kind.FAILS_IF, presence, visibility, containsText, null, "", -1, -1, -1, reason, true);
+    }
+
+    /**
+     * Evaluate this criterion against the current state of the browser, according to its kind.
+     *
+     * @param selector                      The Selector the criterion was declared on
+     *
+     * @return                              Null if the criterion doesn't stand in the way of loading.  Otherwise
+     *                                      the name of the first check that is not satisfied, or for a
+     *                                      {@link Kind#FAILS_IF} criterion that is met, {@link #FAILED}
+     */
+    String verdict(Selector selector) {
+        if (kind == Kind.FAILS_IF) {
+            return failure(selector) == null ? FAILED : null;
+        }
+        return failure(selector);
+    }
+
+    /**
+     * @param name                          The name of the annotated field
+     *
+     * @return                              Why the page is considered failed once this criterion is met
+     */
+    String reasonFor(String name) {
+        return reason.isEmpty() ? name + " met its failure criteria" : reason;
+    }
+
+    /**
+     * Evaluate this criterion against the current state of the browser.
+     *
+     * @param selector                      The Selector the criterion was declared on
+     *
+     * @return                              The name of the first check that is not satisfied, or null if every
+     *                                      check is satisfied
+     */
+    private String failure(Selector selector) {
+
+        if (presence != UNKNOWN) {
+            if (presence.XNOR(selector.isPresent()) != TRUE) {
+                return "presence";
+            }
+        }
+
+        boolean present = selector.isPresent();
+
+        if (visibility != UNKNOWN) {
+            if (visibility.XNOR(present && selector.isDisplayed()) != TRUE) {
+                return "visibility";
+            }
+        }
+
+        if (!containsText.isEmpty()) {
+            if (!present || !selector.getText().contains(containsText)) {
+                return "containsText";
+            }
+        }
+
+        if (cssClasses.length > 0) {
+            if (!present) {
+                return "containsCssClasses";
+            }
+            String[] fromElement = selector.getAttribute("class").split(" ");
+            if (!Arrays.asList(fromElement).containsAll(Arrays.asList(cssClasses))) {
+                return "containsCssClasses";
+            }
+        }
+
+        if (!id.isEmpty()) {
+            if (!present || !id.equals(selector.getAttribute("id"))) {
+                return "hasId";
+            }
+        }
+
+        if (findExactly >= 0) {
+            if (selector.count() != findExactly) {
+                return "findExactly";
+            }
+        } else {
+            if (findAtLeast >= 0) {
+                if (selector.count() < findAtLeast) {
+                    return "findAtLeast";
+                }
+            }
+
+            if (findAtMost >= 0) {
+                if (selector.count() > findAtMost) {
+                    return "findAtMost";
+                }
+            }
+        }
+        return null;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Ternary getPresence() {
+        return presence;
+    }
+
+    public Ternary getVisibility() {
+        return visibility;
+    }
+
+    public String getContainsText() {
+        return containsText;
+    }
+
+    public String[] getCssClasses() {
+        return cssClasses.clone();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getFindAtLeast() {
+        return findAtLeast;
+    }
+
+    public int getFindAtMost() {
+        return findAtMost;
+    }
+
+    public int getFindExactly() {
+        return findExactly;
+    }
+
+    /**
+     * Loaders and failure criteria are expected to change while the page loads, so only ordinary criteria that
+     * weren't declared with {@link Loadable.IsLoaded#mayRegress()} are stable.
+     *
+     * @return                              True if this criterion is assumed to stay satisfied once it is satisfied
+     */
+    public boolean isStable() {
+        return kind == Kind.IS_LOADED && !mayRegress;
+    }
+
+    /**
+     * @return                              The reason given by a {@link Kind#FAILS_IF} criterion, or an empty string
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,243 @@
+package com.jcleary.webdriver;
+
+import org.openqa.selenium.WebDriverException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.jcleary.webdriver.Loadable.FailsIf;
+import static com.jcleary.webdriver.Loadable.InheritLoaders;
+import static com.jcleary.webdriver.Loadable.IsLoaded;
+import static com.jcleary.webdriver.Loadable.Loader;
+import static com.jcleary.webdriver.Loadable.ReadyWhen;
+
+/**
+ * The annotated {@link Selector} fields of a {@link Loadable} class, scanned once per class.  Binding a plan to an
+ * instance only reads the annotated fields, so repeatedly evaluating a page doesn't repeat any reflection.
+ *
+ * Classes that were compiled with {@link com.jcleary.webdriver.processors.PageProcessor} provide their fields through
+ * a {@link GeneratedPagePlan} instead of being scanned reflectively.
+ */
+final class LoadPlan {
+
+    private static final ClassValue<LoadPlan> PLANS = new ClassValue<LoadPlan>() {
+        @Override
+        protected LoadPlan computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType STATIC_GETTER_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<Optional<GeneratedPagePlan>> COMPANIONS =
+            new ClassValue<Optional<GeneratedPagePlan>>() {
+                @Override
+                protected Optional<GeneratedPagePlan> computeValue(Class<?> type) {
+                    return loadCompanion(type);
+                }
+            };
+
+    /**
+     * A single annotated field along with a pre-resolved accessor.
+     */
+    static final class AnnotatedField {
+
+        final String name;
+        final Function<Object, Object> accessor;
+        final LoadCriterion criterion;
+        CriterionStats.Stat stat;
+
+        AnnotatedField(String name, Function<Object, Object> accessor, LoadCriterion criterion) {
+            this.name = name;
+            this.accessor = accessor;
+            this.criterion = criterion;
+        }
+
+        Object get(Object instance) {
+            return accessor.apply(instance);
+        }
+    }
+
+    private final List<AnnotatedField> fields;
+    private final Readiness readiness;
+
+    private LoadPlan(List<AnnotatedField> fields, Readiness readiness) {
+        this.fields = Collections.unmodifiableList(fields);
+        this.readiness = readiness;
+    }
+
+    /**
+     * @param type                          A Loadable class
+     *
+     * @return                              The cached plan of the class
+     */
+    static LoadPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * Find the companion class generated for a page class by {@link com.jcleary.webdriver.processors.PageProcessor}.
+     *
+     * @param type                          A page class
+     *
+     * @return                              The companion, or nothing if the class wasn't processed
+     */
+    static Optional<GeneratedPagePlan> companionOf(Class<?> type) {
+        return COMPANIONS.get(type);
+    }
+
+    /**
+     * @return                              The signals declared by {@link ReadyWhen} on the planned class
+     */
+    Readiness readiness() {
+        return readiness;
+    }
+
+    /**
+     * Read the annotated fields of an instance of the planned class.
+     *
+     * @param loadable                      An instance of the class this plan was made for
+     *
+     * @return                              The criteria of the instance
+     */
+    LoadCriteria bind(Loadable loadable) {
+        List<LoadCriteria.Entry> entries = new ArrayList<>(fields.size());
+
+        for (AnnotatedField field : fields) {
+            Object s = field.get(loadable);
+
+            if (s instanceof Selector) {
+                entries.add(new LoadCriteria.Entry(field.name, (Selector) s, field.criterion, field.stat));
+            }
+        }
+        return new LoadCriteria(entries);
+    }
+
+    /**
+     * Scan a Loadable class for all {@link Selector} fields annotated with {@link IsLoaded}, {@link Loader} or
+     * {@link FailsIf}.
+     *
+     * Use {@link InheritLoaders} on a parent class for its annotated Selectors to be included as well.
+     */
+    private static LoadPlan scan(Class<?> type) {
+        List<AnnotatedField> failures = new ArrayList<>();
+        List<AnnotatedField> loaders = new ArrayList<>();
+        List<AnnotatedField> ordinaries = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Class<?> currentClass = type;
+
+        /*
+                Climb the hierarchical tree and check each Loadable component for Selectors
+         */
+        while (Loadable.class.isAssignableFrom(currentClass) && currentClass.equals(type) ||
+                currentClass.getDeclaredAnnotation(InheritLoaders.class) != null && !currentClass.equals(type)) {
+
+            Optional<GeneratedPagePlan> companion = companionOf(currentClass);
+
+            if (companion.isPresent()) {
+                for (GeneratedPagePlan.Field f : companion.get().declaredFields()) {
+                    AnnotatedField field = new AnnotatedField(f.getName(), f.getAccessor(), f.getCriterion());
+
+                    if (f.getCriterion().getKind() == LoadCriterion.Kind.FAILS_IF) {
+                        failures.add(field);
+                    } else if (f.getCriterion().getKind() == LoadCriterion.Kind.LOADER) {
+                        loaders.add(field);
+                    } else {
+                        ordinaries.add(field);
+                    }
+                }
+                currentClass = currentClass.getSuperclass();
+                continue;
+            }
+
+            for (Field f : currentClass.getDeclaredFields()) {
+
+                IsLoaded isLoaded = f.getDeclaredAnnotation(IsLoaded.class);
+                Loader loader = f.getDeclaredAnnotation(Loader.class);
+                FailsIf failsIf = f.getDeclaredAnnotation(FailsIf.class);
+
+                if (isLoaded == null && loader == null && failsIf == null) {
+                    continue;
+                }
+
+                MethodHandle getter;
+
+                try {
+                    f.setAccessible(true);
+                    getter = lookup.unreflectGetter(f);
+                } catch (IllegalAccessException e) {
+                    throw new WebDriverException(e);
+                }
+
+                if (Modifier.isStatic(f.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter.asType(STATIC_GETTER_TYPE), 0, Object.class);
+                } else {
+                    getter = getter.asType(GETTER_TYPE);
+                }
+
+                Function<Object, Object> accessor = accessorOf(f.getName(), getter);
+
+                if (failsIf != null) {
+                    failures.add(new AnnotatedField(f.getName(), accessor, LoadCriterion.of(failsIf)));
+                }
+                if (isLoaded != null) {
+                    ordinaries.add(new AnnotatedField(f.getName(), accessor, LoadCriterion.of(isLoaded)));
+                } else if (loader != null) {
+                    loaders.add(new AnnotatedField(f.getName(), accessor, LoadCriterion.of(loader)));
+                }
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+
+        List<AnnotatedField> fields = new ArrayList<>(failures);
+        fields.addAll(loaders);
+        fields.addAll(ordinaries);
+
+        for (AnnotatedField field : fields) {
+            field.stat = CriterionStats.of(type, field.name, field.criterion.getKind());
+        }
+
+        ReadyWhen readyWhen = type.getAnnotation(ReadyWhen.class);
+        return new LoadPlan(fields, readyWhen == null ? Readiness.NONE : Readiness.of(readyWhen));
+    }
+
+    private static Function<Object, Object> accessorOf(String name, MethodHandle getter) {
+        return instance -> {
+            try {
+                return getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw new WebDriverException("Could not read the field " + name, t);
+            }
+        };
+    }
+
+    private static Optional<GeneratedPagePlan> loadCompanion(Class<?> type) {
+        String packageName = type.getPackage() == null ? "" : type.getPackage().getName();
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        String companionName = prefix + type.getName().substring(prefix.length()).replace('$', '_')
+                + GeneratedPagePlan.SUFFIX;
+
+        try {
+            Class<?> companion = Class.forName(companionName, true, type.getClassLoader());
+
+            if (GeneratedPagePlan.class.isAssignableFrom(companion)) {
+                return Optional.of((GeneratedPagePlan) companion.getDeclaredConstructor().newInstance());
+            }
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException e) {
+            throw new WebDriverException("Could not instantiate the generated plan " + companionName, e);
+        }
+        return Optional.empty();
+    }
+}
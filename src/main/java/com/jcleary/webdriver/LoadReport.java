@@ -0,0 +1,112 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.util.Ternary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of waiting for a {@link Loadable} to load, along with a verdict for each annotated {@link Selector}.
+ */
+public final class LoadReport {
+
+    /**
+     * The verdict of a single annotated Selector field.
+     */
+    public static final class Verdict {
+
+        private final String name;
+        private final Selector selector;
+        private final String failure;
+
+        Verdict(String name, Selector selector, String failure) {
+            this.name = name;
+            this.selector = selector;
+            this.failure = failure;
+        }
+
+        /**
+         * @return                          The name of the annotated field
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return                          The annotated Selector, or null for the verdict of the readiness signals
+         */
+        public Selector getSelector() {
+            return selector;
+        }
+
+        public boolean isSatisfied() {
+            return failure == null;
+        }
+
+        /**
+         * @return                          The name of the annotation attribute that was not satisfied, such as
+         *                                  'visibility' or 'findExactly', or 'failsIf' if a
+         *                                  {@link Loadable.FailsIf} criterion was met.  Null if the criterion was
+         *                                  satisfied
+         */
+        public String getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return name + (selector == null ? "" : " " + selector)
+                    + (failure == null ? " satisfied" : " failed on " + failure);
+        }
+    }
+
+    private final Ternary state;
+    private final String failureReason;
+    private final List<Verdict> verdicts;
+
+    LoadReport(boolean loaded, List<Verdict> verdicts) {
+        this(loaded ? Ternary.TRUE : Ternary.UNKNOWN, null, verdicts);
+    }
+
+    LoadReport(Ternary state, String failureReason, List<Verdict> verdicts) {
+        this.state = state;
+        this.failureReason = failureReason;
+        this.verdicts = Collections.unmodifiableList(new ArrayList<>(verdicts));
+    }
+
+    public boolean isLoaded() {
+        return state == Ternary.TRUE;
+    }
+
+    /**
+     * @return                          {@link Ternary#TRUE} if the page loaded, {@link Ternary#FALSE} if it failed
+     *                                  to load and {@link Ternary#UNKNOWN} if it was still loading
+     */
+    public Ternary getState() {
+        return state;
+    }
+
+    /**
+     * @return                          Why the page failed to load, or null unless the state is
+     *                                  {@link Ternary#FALSE}
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public List<Verdict> getVerdicts() {
+        return verdicts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(state == Ternary.TRUE ? "Loaded"
+                : state == Ternary.FALSE ? "Failed: " + failureReason
+                : "Not loaded");
+        for (Verdict verdict : verdicts) {
+            report.append("\n  ").append(verdict);
+        }
+        return report.toString();
+    }
+}
@@ -1,19 +1,18 @@
 package com.jcleary.webdriver;
 
+import com.jcleary.core.State;
 import com.jcleary.util.Ternary;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.WebDriverException;
-import org.openqa.selenium.support.ui.Clock;
-import org.openqa.selenium.support.ui.SystemClock;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import com.jcleary.webdriver.wait.Waiter;
 
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.jcleary.util.Ternary.TRUE;
 import static com.jcleary.util.Ternary.UNKNOWN;
@@ -96,6 +95,15 @@ public interface Loadable {
          * @return                      A count of the exact number of WebElements to be expected
          */
         int findExactly() default -1;
+
+        /**
+         * While waiting for the page to load, a satisfied criterion is assumed to stay satisfied and is only checked
+         * again once every other criterion is satisfied too.  Declare true for elements that may be replaced or
+         * change again while the page is loading, so that they are checked on every attempt.
+         *
+         * @return                      True if this criterion may stop being satisfied while the page loads
+         */
+        boolean mayRegress() default false;
     }
 
     /**
@@ -133,6 +141,83 @@ public interface Loadable {
         Ternary visibleOnFinish() default UNKNOWN;
     }
 
+    /**
+     * Attach this to {@link Selector} instance fields whose element declares that the page will never load, such as
+     * an error message or the form of a login page the browser was redirected to.  As soon as every declared
+     * expectation is met, waiting for the page stops and it is considered failed instead of waiting for the timeout.
+     *
+     * May be combined with {@link IsLoaded} on the same field.  Unless explicitly stated otherwise, each option is
+     * implied to operate implicitly on the first found WebElement that matches it's {@link Selector#locator}.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    @interface FailsIf {
+
+        /**
+         * The state of this element's presence that fails the page.  Declaring {@link Ternary#TRUE} or
+         * {@link Ternary#FALSE} will create an expectation of that state.  Declaring {@link Ternary#UNKNOWN} will
+         * skip it.
+         *
+         * @return                      True if the page fails when any single element is located in the DOM
+         */
+        Ternary presence() default TRUE;
+
+        /**
+         * The state of this element's visibility that fails the page.  Declaring {@link Ternary#TRUE} or
+         * {@link Ternary#FALSE} will create an expectation of that state.  Declaring {@link Ternary#UNKNOWN} will
+         * skip it.
+         *
+         * @return                      True if the page fails when the first located element is visible
+         */
+        Ternary visibility() default UNKNOWN;
+
+        /**
+         * The page fails when this element contains a particular string.
+         *
+         * @return                      The text that fails the page
+         */
+        String containsText() default "";
+
+        /**
+         * Describes the failure, such as 'Redirected to the login page'.  Defaults to naming the field.
+         *
+         * @return                      Why the page is considered failed
+         */
+        String reason() default "";
+    }
+
+    /**
+     * Attach this to a Loadable class to wait for page wide signals, such as network traffic settling, in addition to
+     * its annotated Selectors.  The signals are only checked once every other criterion is satisfied.  See
+     * {@link Readiness}.
+     *
+     * The signals are evaluated with the driver of the {@link Page}, or of the first annotated Selector if the
+     * Loadable isn't a page, so a Loadable that is neither is never held back by them.
+     */
+    @Inherited
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface ReadyWhen {
+
+        /**
+         * @return                      True to wait for document.readyState to be 'complete'
+         */
+        boolean documentComplete() default true;
+
+        /**
+         * Wait until no XMLHttpRequest or fetch request has been in flight for this many milliseconds.
+         *
+         * @return                      The idle period in milliseconds, or -1 to skip it
+         */
+        long networkIdleMillis() default -1;
+
+        /**
+         * @return                      True to wait for every CSS animation and transition to finish, except
+         *                              those that repeat forever
+         */
+        boolean animationsIdle() default false;
+    }
+
     /**
      * Assign for this class to inherit it's parent's loadables.
      */
@@ -149,176 +234,53 @@ public interface Loadable {
      * Use {@link com.jcleary.webdriver.Loadable.InheritLoaders} for this method to also assert annotated Selectors
      * in the immediate parent class to this page object.
      *
-     * TODO Add logging and create an exception that contains a report instead of just returning false
-     *
      * @return                          True if this page is considered loaded
      */
     default boolean isLoaded() {
+        return loadState() == TRUE;
+    }
 
-        /*      Order of operations:
-
-                split elements into two lists: ordinary elements and loaders
-
-                First:
-                for each loader element:
-                    check presence if required
-
-                    check visibility if required
-
-                Second:
-                for each ordinary element:
-                    check presence if required
-
-                    check visibility if required
-
-                    Check containing css classes if required
-
-                    Check id if required
-
-                    if visibility ->
-                        check containing text if required
-
-                    if findExactly ->
-                        check find exactly, skip check for at most and at least
-                    else ->
-                        check find at least if required
-                        check find at most if required
-         */
-
-        Map<Selector, Loader> loaders = new HashMap<>();
-        Map<Selector, IsLoaded> ordinaries = new HashMap<>();
-        Class<?> currentClass = getClass();
+    /**
+     * Determine whether this page has loaded, has failed to load or is still loading.
+     *
+     *      Order of operations:
+     *
+     *      {@link #failedBecause()}, then failure criteria, then loaders, then ordinary elements, then the
+     *      {@link #readiness()} signals.  For each element, in order, check:
+     *
+     *          presence, visibility, containing text, containing css classes, id,
+     *          then either find exactly or find at least and find at most
+     *
+     *      Return as soon as any check isn't satisfied or any failure criterion is met.  Within the loaders and
+     *      within the ordinary elements, those that are cheap and likely to fail are checked first once enough
+     *      checks were observed, see {@link CriterionStats}.
+     *
+     * @return                          {@link Ternary#TRUE} if this page is considered loaded,
+     *                                  {@link Ternary#FALSE} if it is considered failed and will never load,
+     *                                  {@link Ternary#UNKNOWN} if it is still loading and is worth waiting for
+     */
+    default Ternary loadState() {
+        return LoadCriteria.of(this).evaluate(this, false).getState();
+    }
 
-        /*
-                Scan for all annotated Selectors that this page is configured to look at.
+    /**
+     * The programmatic equivalent of {@link FailsIf}, for failures that can't be expressed by an element, such as
+     * the current url.  Checked before any annotated criteria.
+     *
+     * @return                          Why this page will never load, or nothing if it may still load
+     */
+    default Optional<String> failedBecause() {
+        return Optional.empty();
+    }
 
-                Climb the hierarchical tree and check each Loadable component for Selectors
-         */
-        while (Loadable.class.isAssignableFrom(currentClass) && currentClass.equals(getClass()) ||
-                currentClass.getDeclaredAnnotation(InheritLoaders.class) != null && !currentClass.equals(getClass())) {
-
-            /*
-                Get all the fields in the current class
-             */
-            for (Field f : currentClass.getDeclaredFields()) {
-
-                Object s;
-                IsLoaded isLoaded;
-                Loader loader;
-
-                try {
-                    f.setAccessible(true);
-                    s = f.get(this); // Get instance
-                } catch (IllegalAccessException e) {
-                    throw new WebDriverException(e);
-                }
-
-                // If our field is a selector
-                if (s instanceof Selector) {
-
-                    isLoaded = f.getDeclaredAnnotation(IsLoaded.class); // Get possible IsLoaded annotation
-                    loader = f.getDeclaredAnnotation(Loader.class); // Get possible Loader annotation
-
-                    if (isLoaded != null) {
-                        ordinaries.put((Selector) s, isLoaded); // Annotated with IsLoaded, put in ordinary map
-                    } else if (loader != null) {
-                        loaders.put((Selector) s, loader); // Annotated with Loader, put in loaders map
-                    }
-                }
-
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-
-        /* We finished scanning for elements, now lets iterate through them and deal with their criteria */
-
-        // Loaders first
-        for (Selector loader : loaders.keySet()) {
-
-            Ternary present = loaders.get(loader).presentOnFinish();
-            Ternary visible = loaders.get(loader).visibleOnFinish();
-
-            if (present != UNKNOWN) {
-                if (present.XNOR(loader.isPresent()) != TRUE) {
-                    return false;
-                }
-            }
-
-            if (visible != UNKNOWN) {
-                if (visible.XNOR(loader.isDisplayed()) != TRUE) {
-                    return false;
-                }
-            }
-
-        }
-
-        for (Selector ordinary : ordinaries.keySet()) {
-
-            // Populate data from annotation
-            Ternary presence = ordinaries.get(ordinary).presence();
-            Ternary visibility = ordinaries.get(ordinary).visibility();
-            String containsText = ordinaries.get(ordinary).containsText();
-            String[] cssClasses = ordinaries.get(ordinary).containsCssClasses();
-            String id = ordinaries.get(ordinary).hasId();
-            int findAtLeast = ordinaries.get(ordinary).findAtLeast();
-            int findAtMost = ordinaries.get(ordinary).findAtMost();
-            int findExactly = ordinaries.get(ordinary).findExactly();
-
-            if (presence != UNKNOWN) {
-                if (presence.XNOR(ordinary.isPresent()) != TRUE) {
-                    return false;
-                }
-            }
-
-            if (visibility != UNKNOWN) {
-                if (visibility.XNOR(ordinary.isDisplayed()) != TRUE) {
-                    return false;
-                }
-            }
-
-            if (containsText != null && !containsText.isEmpty()) {
-                try {
-                    if (!ordinary.getText().contains(containsText)) {
-                        return false;
-                    }
-                } catch (NoSuchElementException e) {
-                    return false;
-                }
-            }
-
-            if (cssClasses != null && (cssClasses.length == 1 && !cssClasses[0].isEmpty())) {
-                String[] fromElement = ordinary.get().getAttribute("class").split(" ");
-                if (!Arrays.asList(fromElement).containsAll(Arrays.asList(cssClasses))) {
-                    return false;
-                }
-            }
-
-            if (id != null && !id.isEmpty()) {
-                if (!ordinary.get().getAttribute("id").equals(id)) {
-                    return false;
-                }
-            }
-
-            if (findExactly >= 0) {
-                if (ordinary.getMultiple().size() != findExactly) {
-                    return false;
-                }
-            } else {
-                if (findAtLeast >= 0) {
-                    if (ordinary.getMultiple().size() < findAtLeast) {
-                        return false;
-                    }
-                }
-
-                if (findAtMost >= 0) {
-                    if (ordinary.getMultiple().size() > findAtMost) {
-                        return false;
-                    }
-                }
-            }
-        }
-
-        return true;
+    /**
+     * The page wide signals to wait for once every annotated criterion is satisfied.  Declared by
+     * {@link ReadyWhen}, or overridden to decide at runtime.
+     *
+     * @return                          The signals of this page, {@link Readiness#NONE} by default
+     */
+    default Readiness readiness() {
+        return LoadPlan.of(getClass()).readiness();
     }
 
     /**
@@ -330,16 +292,103 @@ public interface Loadable {
      * @return                          True if the page is considered loaded before the duration completes
      */
     default boolean waitUntilLoaded(final long timeoutMillis) {
+        return waitUntilLoaded(timeoutMillis, WaitStrategy.DEFAULT);
+    }
+
+    /**
+     * Wait a duration for the page to become considered loaded as dictated by the criteria outlined by
+     * {@link #isLoaded()}, sleeping between attempts as decided by a {@link WaitStrategy}.  Returns false as soon as
+     * the page is considered failed.
+     *
+     * @param timeoutMillis             The maximum number of milliseconds to allow the page to finish loading
+     * @param strategy                  Decides how long to sleep between attempts
+     *
+     * @return                          True if the page is considered loaded before the duration completes
+     */
+    default boolean waitUntilLoaded(final long timeoutMillis, WaitStrategy strategy) {
+        return waitForLoad(timeoutMillis, strategy).isLoaded();
+    }
+
+    /**
+     * Wait a duration for the page to either load or fail as dictated by the criteria outlined by
+     * {@link #loadState()}.
+     *
+     * @param timeoutMillis             The maximum number of milliseconds to allow the page to finish loading
+     *
+     * @return                          A report whose state is {@link Ternary#UNKNOWN} if the time ran out
+     */
+    default LoadReport waitForLoad(final long timeoutMillis) {
+        return waitForLoad(timeoutMillis, WaitStrategy.DEFAULT);
+    }
 
-        Clock clock = new SystemClock();
+    /**
+     * Wait a duration for the page to either load or fail as dictated by the criteria outlined by
+     * {@link #loadState()}, sleeping between attempts as decided by a {@link WaitStrategy}.  A satisfied criterion
+     * isn't checked again until every criterion is satisfied, unless it is declared with
+     * {@link IsLoaded#mayRegress()}.
+     *
+     * @param timeoutMillis             The maximum number of milliseconds to allow the page to finish loading
+     * @param strategy                  Decides how long to sleep between attempts
+     *
+     * @return                          A report whose state is {@link Ternary#UNKNOWN} if the time ran out, with a
+     *                                  verdict for each criterion evaluated by the last attempt
+     */
+    default LoadReport waitForLoad(final long timeoutMillis, WaitStrategy strategy) {
+        LoadCriteria criteria = LoadCriteria.of(this);
+
+        return ImplicitWait.suspended(criteria.states(), () -> {
+            IncrementalLoad evaluation = new IncrementalLoad(this, criteria);
+            LoadReport[] last = new LoadReport[1];
+
+            new Waiter(strategy).until(LoadCriteria.waitKey(this), timeoutMillis, () -> {
+                last[0] = evaluation.next();
+                return last[0].getState() == UNKNOWN ? null : last[0];
+            });
+            return last[0] != null ? last[0] : criteria.evaluate(this, false);
+        });
+    }
 
-        long delay = clock.laterBy(timeoutMillis);
+    /**
+     * Wait a duration for the page to either load or fail as dictated by the criteria outlined by
+     * {@link #loadState()} without blocking the calling thread.  The criteria are evaluated incrementally by the
+     * {@link PollScheduler#shared() shared scheduler}, as by {@link #waitForLoad(long, WaitStrategy)}.
+     *
+     * @param timeoutMillis             The maximum number of milliseconds to allow the page to finish loading
+     * @param strategy                  Decides how long to wait between attempts
+     *
+     * @return                          A future completed with the report, whose state is
+     *                                  {@link Ternary#UNKNOWN} if the time ran out
+     */
+    default CompletableFuture<LoadReport> waitForLoadAsync(final long timeoutMillis, WaitStrategy strategy) {
+        LoadCriteria criteria = LoadCriteria.of(this);
+        List<State> states = criteria.states();
+        IncrementalLoad evaluation = new IncrementalLoad(this, criteria);
+        LoadReport[] last = new LoadReport[1];
+
+        return PollScheduler.shared().submit(states.isEmpty() ? this : states.get(0), LoadCriteria.waitKey(this),
+                timeoutMillis, strategy,
+                () -> {
+                    last[0] = evaluation.next();
+                    return last[0].getState() == UNKNOWN ? null : last[0];
+                },
+                null,
+                ignored -> last[0] != null ? last[0] : criteria.evaluate(this, false));
+    }
 
-        while (clock.isNowBefore(delay)) {
-            if (isLoaded()) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Wait a duration for the page to become considered loaded as dictated by the criteria outlined by
+     * {@link #isLoaded()}, evaluating the criteria inside the browser.  The criteria of every annotated Selector are
+     * compiled into a single asynchronous script that polls until the page is loaded or the time runs out, so only
+     * one round trip is made no matter how many criteria are declared.
+     *
+     * If the driver can't execute JavaScript, the criteria are polled from Java instead.  Either way the wait stops
+     * as soon as the page is considered failed.
+     *
+     * @param timeoutMillis             The maximum number of milliseconds to allow the page to finish loading
+     *
+     * @return                          A report stating whether the page loaded, with a verdict for each criterion
+     */
+    default LoadReport waitUntilLoadedInBrowser(final long timeoutMillis) {
+        return BrowserReadiness.waitUntilLoaded(this, LoadCriteria.of(this), timeoutMillis);
     }
 }
@@ -0,0 +1,85 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.webdriver.wait.Deadline;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Waits for a {@link Selector} to match an {@link ElementCondition} using {@link BrowserScripts#AWAIT_CONDITION},
+ * which blocks on a single asynchronous script that answers as soon as the document changes into the expected
+ * state instead of polling the driver.
+ */
+final class MutationWait {
+
+    /**
+     * How often the browser re-checks the condition regardless of mutations.
+     */
+    static final long RECHECK_MILLIS = 250L;
+
+    private MutationWait() {
+    }
+
+    /**
+     * @param driver                        The driver the Selector runs in
+     * @param condition                     The condition to wait for
+     *
+     * @return                              True if the wait can be performed inside the browser
+     */
+    static boolean supports(WebDriver driver, Predicate<WebElement> condition) {
+        return driver instanceof JavascriptExecutor && condition instanceof ElementCondition;
+    }
+
+    /**
+     * Wait until an element located by the Selector matches the condition or the time limit passes.  The wait is
+     * started over on the new document whenever a navigation unloads the one it was waiting in.
+     *
+     * @param selector                      The Selector locating the elements
+     * @param condition                     The condition to wait for
+     * @param firstOnly                     True to only consider the first located element
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     *
+     * @return                              The first matching element
+     *
+     * @exception TimeoutException          If no element matched the condition before the time limit
+     * @exception WebDriverException        If the condition can't be waited on in the page, such as for an invalid
+     *                                      locator or in a browser without MutationObserver
+     */
+    static WebElement await(Selector selector, ElementCondition condition, boolean firstOnly, long timeoutMillis) {
+        WebDriver driver = selector.getState().getDriver();
+
+        WebElement found = toElement(selector, AsyncScript.run(selector.getState(), Deadline.clamp(timeoutMillis),
+                remaining -> ((JavascriptExecutor) driver).executeAsyncScript(
+                        BrowserScripts.AWAIT_CONDITION,
+                        selector.getType().name(),
+                        selector.getLocator(),
+                        condition.toScript(),
+                        firstOnly,
+                        remaining,
+                        RECHECK_MILLIS)));
+
+        if (found == null) {
+            throw new TimeoutException("Timed out waiting in the browser for " + selector + " to be " + condition
+                    + ".");
+        }
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WebElement toElement(Selector selector, Object response) {
+        if (!(response instanceof Map)) {
+            throw new WebDriverException("Unexpected response while waiting on " + selector + ": " + response);
+        }
+        Map<String, Object> result = (Map<String, Object>) response;
+
+        if (result.get("error") != null) {
+            throw new WebDriverException("Unable to wait on " + selector + " in the browser: " + result.get("error"));
+        }
+        return (WebElement) result.get("element");
+    }
+}
@@ -2,13 +2,14 @@ package com.jcleary.webdriver;
 
 import com.jcleary.core.State;
 import com.jcleary.exceptions.PageException;
+import com.jcleary.webdriver.wait.Deadline;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import com.jcleary.webdriver.wait.Waiter;
 import org.apache.commons.collections.ListUtils;
-import org.openqa.selenium.support.ui.Clock;
-import org.openqa.selenium.support.ui.SystemClock;
+import org.openqa.selenium.WebElement;
 
 import java.lang.annotation.*;
-import java.util.Arrays;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Predicate;
 
 /**
@@ -55,6 +56,7 @@ public abstract class Page {
 
     private final State state;
     private long defaultTimeout = 30 * 1000;
+    private WaitStrategy waitStrategy = WaitStrategy.DEFAULT;
 
     public Page(State state) {
         this.state = state;
@@ -72,8 +74,17 @@ public abstract class Page {
         return defaultTimeout;
     }
 
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
     /**
-     * Wait until a predicate returns true.
+     * Wait until a predicate returns true.  Unnamed predicates have nothing in common to learn from, so the page's
+     * {@link WaitStrategy} only decides how long to sleep and isn't told how long the wait took.
      *
      * @param condition         A condition to wait for
      * @param waitMillis          How long to wait before failing
@@ -81,57 +92,133 @@ public abstract class Page {
      * @return                  True if the condition is met within the time limit
      */
     public boolean waitUntil(Predicate<Page> condition, long waitMillis ) {
+        return waitUntil(getClass().getName(), waitStrategy::nextDelay, condition, waitMillis);
+    }
 
-        Clock clock = new SystemClock();
-        long delay = clock.now() + waitMillis;
+    /**
+     * Wait until a named predicate returns true, letting the page's {@link WaitStrategy} learn how long the wait
+     * usually takes.
+     *
+     * @param name              Identifies the condition among the page's waits, the same name being used every time
+     *                          the same condition is waited for
+     * @param condition         A condition to wait for
+     * @param waitMillis        How long to wait before failing
+     *
+     * @return                  True if the condition is met within the time limit
+     */
+    public boolean waitUntil(String name, Predicate<Page> condition, long waitMillis) {
+        return waitUntil(getClass().getName() + "#" + name, waitStrategy, condition, waitMillis);
+    }
 
-        while (clock.isNowBefore(delay)) {
-            if (condition.test(this)) {
-                return true;
-            }
-            sleep(500);
-        }
-        return false;
+    private boolean waitUntil(String key, WaitStrategy strategy, Predicate<Page> condition, long waitMillis) {
+        return new Waiter(strategy)
+                .until(key, waitMillis, () -> {
+                    try (QueryContext context = QueryContext.open()) {
+                        return condition.test(this) ? this : null;
+                    }
+                })
+                .isSatisfied();
     }
 
     public boolean waitUntil(Predicate<Page> condition) {
         return waitUntil(condition, defaultTimeout);
     }
 
+    /**
+     * Wait until page wide signals are idle, such as network traffic settling, instead of sleeping for a fixed
+     * duration.
+     *
+     * @param readiness         The signals to wait for
+     * @param waitMillis        How long to wait before failing
+     *
+     * @return                  True if every signal is idle within the time limit
+     */
+    public boolean waitUntilReady(Readiness readiness, long waitMillis) {
+        return waitUntil(page -> readiness.check(state) == null, waitMillis);
+    }
+
+    public boolean waitUntilReady(Readiness readiness) {
+        return waitUntilReady(readiness, defaultTimeout);
+    }
+
+    /**
+     * Wait until any one of several Selectors locates an element that satisfies its condition.  Every candidate is
+     * checked on each attempt, see {@link SelectorRace}.
+     *
+     * @param candidates        Each Selector along with its condition, the first one wins a tie
+     *
+     * @return                  The candidate that was satisfied and its element
+     *
+     * @exception org.openqa.selenium.TimeoutException  If no candidate is satisfied within the default timeout
+     */
+    public SelectorRace.Match waitForAny(Map<Selector, ? extends Predicate<WebElement>> candidates) {
+        return SelectorRace.of(state, candidates).withWaitStrategy(waitStrategy).waitForAny(defaultTimeout);
+    }
+
+    /**
+     * Wait until every one of several Selectors locates an element that satisfies its condition.
+     *
+     * @param candidates        Each Selector along with its condition
+     *
+     * @return                  The element of each candidate
+     *
+     * @exception org.openqa.selenium.TimeoutException  If the candidates aren't all satisfied within the default
+     *                                                  timeout
+     */
+    public Map<Selector, WebElement> waitForAll(Map<Selector, ? extends Predicate<WebElement>> candidates) {
+        return SelectorRace.of(state, candidates).withWaitStrategy(waitStrategy).waitForAll(defaultTimeout);
+    }
+
     /**
      * Simulate pushing the back button in the browser to return to the previous page.
      */
     public Page back() {
-        getState().getDriver().navigate().back();
-        return this;
+        return getState().exclusively(() -> {
+            getState().getDriver().navigate().back();
+            getState().navigated();
+            QueryContext.clearCurrent();
+            return this;
+        });
     }
 
     /**
      * Simulate pushing the forward button in the browser to go forward in history one page.
      */
     public Page forward() {
-        getState().getDriver().navigate().forward();
-        return this;
+        return getState().exclusively(() -> {
+            getState().getDriver().navigate().forward();
+            getState().navigated();
+            QueryContext.clearCurrent();
+            return this;
+        });
     }
 
     /**
      * Simulate hitting the refresh button in the browser to refresh the page.
      */
     public Page refresh() {
-        getState().getDriver().navigate().refresh();
-        return this;
+        return getState().exclusively(() -> {
+            getState().getDriver().navigate().refresh();
+            getState().navigated();
+            QueryContext.clearCurrent();
+            return this;
+        });
     }
 
     public Page go() {
-        getState().getDriver().get(url());
-        return this;
+        return getState().exclusively(() -> {
+            getState().getDriver().get(url());
+            getState().navigated();
+            QueryContext.clearCurrent();
+            return this;
+        });
     }
 
     /**
      * Search this page object for the {@link Page.Info} class annotation that is storing
      * the hostname that this page uses.  If the annotation isn't found, or if the annotation is found, but
      * a hostname is not.  The class hierarchy will be climbed until the closest parent with a declared
-     * hostname is found.
+     * hostname is found.  The search result is cached per class.
      *
      * @return                      The full hostname that this page is hosted in
      *
@@ -139,55 +226,25 @@ public abstract class Page {
      *                              or any other hierarchical parent class
      */
     public String getHostname() {
-        Class currentClass = getClass();
-        while (!currentClass.getSimpleName().equals("Object")) {
-            Annotation[] annotation = currentClass.getDeclaredAnnotations();
-            Optional<Annotation> maybeInfo = Arrays.stream(annotation)
-                    .filter(a -> a.annotationType().equals(Info.class))
-                    .findFirst();
-
-            if (maybeInfo.isPresent()) {
-                Info info = (Info) maybeInfo.get();
-                if (info.host() != null && !info.host().isEmpty()) {
-                    String host = info.host();
-
-                    host = getState().store().interpolate(host);
-                    return host + (info.port() == 80 ? "" : ":" + info.port());
-                }
-            }
-            currentClass = currentClass.getSuperclass();
+        String host = PageMetadata.of(getClass()).getHostTemplate();
+
+        if (host == null) {
+            throw new PageException("Could not find a hostname on the "
+                    + getClass().getSimpleName() + " page or any parent page.");
         }
-        throw new PageException("Could not find a hostname on the "
-                + getClass().getSimpleName() + " page or any parent page.");
+        return getState().store().interpolate(host);
     }
 
     /**
      * Search this page object then each page object in the hierarchical tree for the {@link Page.Info} class
      * annotation that is storing the relative path to this page.  Each segment of the relative url is inserted at the
-     * beginning of the string for each super page class crawled.
+     * beginning of the string for each super page class crawled.  The result is cached per class.
      *
      * @return                      The full relative path to this page.  Or an empty string if no relative path
      *                              is found.  Or if the path is explicitly set to be empty
      */
     public String getRelativePath() {
-
-        Class<?> currentPage = this.getClass();
-        StringBuilder relativePath = new StringBuilder("");
-
-        // Build url
-        while (Page.class.isAssignableFrom(currentPage)) {
-            for (Annotation anAnnotation : currentPage.getDeclaredAnnotations()) {
-                if (anAnnotation instanceof Info) {
-                    Info info = (Info) anAnnotation;
-                    if (!info.relativePath().isEmpty()) {
-                        relativePath.insert(0, info.relativePath());
-                    }
-                }
-            }
-            currentPage = currentPage.getSuperclass();
-        }
-
-        return relativePath.toString();
+        return PageMetadata.of(getClass()).getRelativePath();
     }
 
     /**
@@ -204,9 +261,16 @@ public abstract class Page {
         return state;
     }
 
+    /**
+     * Sleep for a fixed duration, cut short by the {@link Deadline} open on the current thread, if any.
+     *
+     * @param millis            How long to sleep
+     *
+     * @exception org.openqa.selenium.TimeoutException  If the deadline has already passed
+     */
     public void sleep(long millis) {
         try {
-            Thread.sleep(millis);
+            Thread.sleep(Deadline.clamp(millis));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
@@ -0,0 +1,78 @@
+package com.jcleary.webdriver;
+
+import java.util.Optional;
+
+/**
+ * The url related {@link Page.Info} meta-data of a page class, resolved across the class hierarchy once per class.
+ * Values are stored uninterpolated since the {@link com.jcleary.core.store.StateStore} may change between calls.
+ *
+ * The values are taken from the {@link GeneratedPagePlan} of the class when there is one.
+ */
+final class PageMetadata {
+
+    private static final ClassValue<PageMetadata> METADATA = new ClassValue<PageMetadata>() {
+        @Override
+        protected PageMetadata computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    /**
+     * The host of the closest class declaring one, followed by its port unless it's the default.  Null if no class
+     * in the hierarchy declares a host.
+     */
+    private final String hostTemplate;
+
+    private final String relativePath;
+
+    private PageMetadata(String hostTemplate, String relativePath) {
+        this.hostTemplate = hostTemplate;
+        this.relativePath = relativePath;
+    }
+
+    static PageMetadata of(Class<?> type) {
+        return METADATA.get(type);
+    }
+
+    String getHostTemplate() {
+        return hostTemplate;
+    }
+
+    String getRelativePath() {
+        return relativePath;
+    }
+
+    private static PageMetadata resolve(Class<?> type) {
+        Optional<GeneratedPagePlan> companion = LoadPlan.companionOf(type);
+
+        if (companion.isPresent()) {
+            return new PageMetadata(companion.get().hostTemplate(), companion.get().relativePath());
+        }
+
+        String hostTemplate = null;
+
+        Class<?> currentClass = type;
+        while (hostTemplate == null && currentClass != null && !currentClass.equals(Object.class)) {
+            Page.Info info = currentClass.getDeclaredAnnotation(Page.Info.class);
+
+            if (info != null && info.host() != null && !info.host().isEmpty()) {
+                hostTemplate = info.host() + (info.port() == 80 ? "" : ":" + info.port());
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+
+        StringBuilder relativePath = new StringBuilder("");
+
+        Class<?> currentPage = type;
+        while (Page.class.isAssignableFrom(currentPage)) {
+            Page.Info info = currentPage.getDeclaredAnnotation(Page.Info.class);
+
+            if (info != null && !info.relativePath().isEmpty()) {
+                relativePath.insert(0, info.relativePath());
+            }
+            currentPage = currentPage.getSuperclass();
+        }
+
+        return new PageMetadata(hostTemplate, relativePath.toString());
+    }
+}
@@ -0,0 +1,291 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.Deadline;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import org.openqa.selenium.TimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Drives asynchronous waits from a single timer thread instead of a sleeping thread per wait.  Attempts are run on a
+ * pool of worker threads only while they are being checked, so hundreds of sessions waiting at once don't hold
+ * hundreds of threads.
+ *
+ * Waits are grouped by the {@link State} they belong to.  On each tick, every wait of a group that is due, or about
+ * to be, is attempted by the same worker inside one {@link QueryContext} and with the implicit wait suspended, so
+ * waits on the same elements share their lookups and a session is only ever polled by one thread at a time.  The
+ * worker {@link State#borrow(Supplier) borrows} the State, so waits on a State confined to a thread still work.
+ *
+ * Borrowed attempts run {@link State#exclusively(Supplier) exclusively}, and so does everything in this package
+ * that drives the browser, from Selector operations, {@link SelectorBatch}, {@link SelectorRace} and
+ * {@link RowExtractor} to the readiness checks and navigation of pages.  The thread that submitted a wait can keep
+ * using them meanwhile and simply waits for an attempt in progress.  Anything else that uses the driver directly
+ * before the wait completes must run through {@link State#exclusively(Supplier)} as well.
+ */
+public final class PollScheduler {
+
+    /**
+     * Waits that are due within this many milliseconds of a tick are attempted along with it.
+     */
+    static final long COALESCE_MILLIS = 20L;
+
+    private static volatile PollScheduler shared;
+
+    private final ScheduledExecutorService timer;
+    private final Executor workers;
+    private final ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<>();
+
+    /**
+     * @param timer                         Schedules the ticks, a single thread is enough
+     * @param workers                       Runs the attempts
+     */
+    public PollScheduler(ScheduledExecutorService timer, Executor workers) {
+        this.timer = timer;
+        this.workers = workers;
+    }
+
+    /**
+     * @return                              The scheduler shared by the asynchronous waits of every Selector and
+     *                                      Loadable, running on daemon threads
+     */
+    public static PollScheduler shared() {
+        if (shared == null) {
+            synchronized (PollScheduler.class) {
+                if (shared == null) {
+                    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("poll-timer"));
+                    ExecutorService workers = Executors.newCachedThreadPool(daemon("poll-worker"));
+                    shared = new PollScheduler(timer, workers);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Repeat an attempt until it returns a non-null value or the timeout passes.  Cancelling the returned future
+     * stops the wait.
+     *
+     * @param group                         The State the attempt reads from, or any other key to group by
+     * @param key                           Identifies what is being waited for, see {@link WaitStrategy}
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     * @param strategy                      Decides how long to wait between attempts
+     * @param attempt                       Returns the awaited value, or null if it should be attempted again
+     * @param ignoring                      Exceptions of this type are treated as an unsuccessful attempt.  May be
+     *                                      null
+     * @param onTimeout                     Given the last ignored exception or null, returns the value to complete
+     *                                      with when the time runs out, or throws the exception to complete with
+     *
+     * @return                              A future completed by the first value, or by the outcome of onTimeout.
+     *                                      The timeout is clamped to the {@link Deadline} open on the calling
+     *                                      thread, and the future fails with a TimeoutException if it has passed
+     */
+    public <T> CompletableFuture<T> submit(Object group, String key, long timeoutMillis, WaitStrategy strategy,
+                                           Supplier<T> attempt, Class<? extends RuntimeException> ignoring,
+                                           Function<RuntimeException, T> onTimeout) {
+        Poll<T> poll;
+        try {
+            poll = new Poll<>(key, now() + Deadline.clamp(timeoutMillis), strategy, attempt, ignoring, onTimeout);
+        } catch (TimeoutException e) {
+            CompletableFuture<T> expired = new CompletableFuture<>();
+            expired.completeExceptionally(e);
+            return expired;
+        }
+
+        while (true) {
+            Group g = groups.computeIfAbsent(group, Group::new);
+
+            synchronized (g) {
+                if (!g.retired) {
+                    g.polls.add(poll);
+                    schedule(g, poll.nextAt);
+                    return poll.future;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return                              The number of groups with pending waits
+     */
+    int pendingGroups() {
+        return groups.size();
+    }
+
+    /**
+     * Make sure the group is ticked no later than a point in time.  Must hold the group's lock.
+     */
+    private void schedule(Group group, long at) {
+        if (group.running || group.tick != null && group.tickAt <= at) {
+            return;
+        }
+        if (group.tick != null) {
+            group.tick.cancel(false);
+        }
+        group.tickAt = at;
+        group.tick = timer.schedule(() -> workers.execute(() -> run(group)),
+                Math.max(0L, at - now()), TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Group group) {
+        List<Poll<?>> due = new ArrayList<>();
+
+        synchronized (group) {
+            group.running = true;
+            group.tick = null;
+            group.tickAt = Long.MAX_VALUE;
+
+            long horizon = now() + COALESCE_MILLIS;
+            for (Poll<?> poll : group.polls) {
+                if (poll.nextAt <= horizon) {
+                    due.add(poll);
+                }
+            }
+        }
+
+        try (QueryContext context = QueryContext.open()) {
+            Supplier<Void> attempts = () -> {
+                for (Poll<?> poll : due) {
+                    poll.attempt();
+                }
+                return null;
+            };
+
+            if (group.key instanceof State) {
+                State state = (State) group.key;
+                state.borrow(() -> ImplicitWait.suspended(state, attempts));
+            } else {
+                attempts.get();
+            }
+        } catch (RuntimeException e) {
+            for (Poll<?> poll : due) {
+                poll.future.completeExceptionally(e);
+            }
+        } finally {
+            synchronized (group) {
+                group.running = false;
+                group.polls.removeIf(poll -> poll.future.isDone());
+
+                if (group.polls.isEmpty()) {
+                    group.retired = true;
+                    groups.remove(group.key, group);
+                } else {
+                    long next = Long.MAX_VALUE;
+                    for (Poll<?> poll : group.polls) {
+                        next = Math.min(next, poll.nextAt);
+                    }
+                    schedule(group, next);
+                }
+            }
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The waits of a single State.  Guarded by its own lock.
+     */
+    private static final class Group {
+
+        final Object key;
+        final List<Poll<?>> polls = new ArrayList<>();
+        ScheduledFuture<?> tick;
+        long tickAt = Long.MAX_VALUE;
+        boolean running;
+        boolean retired;
+
+        Group(Object key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A single pending wait.
+     */
+    private static final class Poll<T> {
+
+        final String key;
+        final long start = now();
+        final long deadline;
+        final WaitStrategy strategy;
+        final Supplier<T> attempt;
+        final Class<? extends RuntimeException> ignoring;
+        final Function<RuntimeException, T> onTimeout;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        volatile long nextAt = start;
+        int attempts;
+        RuntimeException lastIgnored;
+
+        Poll(String key, long deadline, WaitStrategy strategy, Supplier<T> attempt,
+             Class<? extends RuntimeException> ignoring, Function<RuntimeException, T> onTimeout) {
+            this.key = key;
+            this.deadline = deadline;
+            this.strategy = strategy;
+            this.attempt = attempt;
+            this.ignoring = ignoring;
+            this.onTimeout = onTimeout;
+        }
+
+        void attempt() {
+            if (future.isDone()) {
+                return;
+            }
+            attempts++;
+
+            try {
+                T value = attempt.get();
+
+                if (value != null) {
+                    strategy.satisfied(key, now() - start);
+                    future.complete(value);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                if (ignoring == null || !ignoring.isInstance(e)) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                lastIgnored = e;
+            }
+
+            long now = now();
+
+            if (now >= deadline) {
+                try {
+                    future.complete(onTimeout.apply(lastIgnored));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+                return;
+            }
+            nextAt = Math.min(deadline, now + Math.max(0L, strategy.nextDelay(key, attempts, now - start)));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.jcleary.webdriver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes element lookups and reads for the duration of a single evaluation on the current thread, such as one
+ * {@link Loadable#isLoaded()} pass.  While a context is open, asking a {@link Selector} for the same element, list,
+ * text, attribute, visibility or count again returns what was read the first time instead of querying the browser.
+ *
+ * Contexts are meant to be short lived, so nothing is ever invalidated by changes on the page, except for the
+ * interactions and navigations performed through this framework.  Opening a context while one is already open
+ * joins the outer context, and it's discarded once the outermost one is closed.
+ *
+ * <pre>
+ *     try (QueryContext context = QueryContext.open()) {
+ *         ...
+ *     }
+ * </pre>
+ */
+public final class QueryContext implements AutoCloseable {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<Object, Object> values = new HashMap<>();
+
+    private int depth = 0;
+
+    private QueryContext() {
+    }
+
+    /**
+     * Open a context on the current thread, or join the one already open.
+     *
+     * @return                              The open context, which must be closed
+     */
+    public static QueryContext open() {
+        QueryContext context = CURRENT.get();
+
+        if (context == null) {
+            context = new QueryContext();
+            CURRENT.set(context);
+        }
+        context.depth++;
+        return context;
+    }
+
+    /**
+     * @return                              The context open on the current thread, or null if there is none
+     */
+    static QueryContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Forget everything memoized by the context open on the current thread, if any.  Called when the page is
+     * changed through this framework.
+     */
+    static void clearCurrent() {
+        QueryContext context = CURRENT.get();
+
+        if (context != null) {
+            context.values.clear();
+        }
+    }
+
+    /**
+     * Read a value once per context.  Exceptions thrown by the read are memoized and thrown again as well, so an
+     * absent element is only looked for once.
+     *
+     * @param key                           Identifies the value, compared with equals
+     * @param read                          Reads the value from the page
+     *
+     * @return                              The value
+     */
+    @SuppressWarnings("unchecked")
+    <T> T memoize(Object key, Supplier<T> read) {
+        if (values.containsKey(key)) {
+            Object value = values.get(key);
+
+            if (value instanceof Failure) {
+                throw ((Failure) value).exception;
+            }
+            return (T) value;
+        }
+
+        try {
+            T value = read.get();
+            values.put(key, value);
+            return value;
+        } catch (RuntimeException e) {
+            values.put(key, new Failure(e));
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    private static final class Failure {
+
+        private final RuntimeException exception;
+
+        private Failure(RuntimeException exception) {
+            this.exception = exception;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Page wide signals that must be idle for a page to be considered ready, in addition to any element criteria.  The
+ * signals are evaluated inside the browser:
+ *
+ *      document complete       document.readyState is 'complete'
+ *      network idle            no XMLHttpRequest or fetch has been in flight for a number of milliseconds
+ *      animations idle         no CSS animation or transition is running, except those that repeat forever
+ *
+ * Declare them on a {@link Loadable} with {@link Loadable.ReadyWhen}, or override {@link Loadable#readiness()}.
+ * Waiting on them replaces fixed sleeps, see {@link Page#waitUntilReady(Readiness, long)}.
+ *
+ * Signals can't be evaluated when the driver doesn't execute JavaScript, in which case they are considered idle.
+ */
+public final class Readiness {
+
+    /**
+     * Doesn't wait for any signal.
+     */
+    public static final Readiness NONE = new Readiness(false, -1, false);
+
+    private final boolean documentComplete;
+    private final long networkIdleMillis;
+    private final boolean animationsIdle;
+
+    private Readiness(boolean documentComplete, long networkIdleMillis, boolean animationsIdle) {
+        this.documentComplete = documentComplete;
+        this.networkIdleMillis = networkIdleMillis;
+        this.animationsIdle = animationsIdle;
+    }
+
+    public static Readiness of(Loadable.ReadyWhen readyWhen) {
+        return new Readiness(readyWhen.documentComplete(), readyWhen.networkIdleMillis(), readyWhen.animationsIdle());
+    }
+
+    /**
+     * @return                              A copy that also waits for document.readyState to be 'complete'
+     */
+    public Readiness withDocumentComplete() {
+        return new Readiness(true, networkIdleMillis, animationsIdle);
+    }
+
+    /**
+     * @param idleMillis                    How long no request must have been in flight
+     *
+     * @return                              A copy that also waits for network traffic to settle
+     */
+    public Readiness withNetworkIdle(long idleMillis) {
+        return new Readiness(documentComplete, idleMillis, animationsIdle);
+    }
+
+    /**
+     * @return                              A copy that also waits for animations and transitions to finish
+     */
+    public Readiness withAnimationsIdle() {
+        return new Readiness(documentComplete, networkIdleMillis, true);
+    }
+
+    public boolean isDocumentComplete() {
+        return documentComplete;
+    }
+
+    /**
+     * @return                              How long no request must have been in flight, or a negative number if
+     *                                      network traffic isn't waited for
+     */
+    public long getNetworkIdleMillis() {
+        return networkIdleMillis;
+    }
+
+    public boolean isAnimationsIdle() {
+        return animationsIdle;
+    }
+
+    /**
+     * @return                              True if no signal is waited for
+     */
+    public boolean isNone() {
+        return !documentComplete && networkIdleMillis < 0 && !animationsIdle;
+    }
+
+    /**
+     * Evaluate the signals once.
+     *
+     * @param driver                        The driver of the page
+     *
+     * @return                              The name of the first signal that isn't idle, such as 'networkIdle', or
+     *                                      null if the page is ready
+     */
+    String check(WebDriver driver) {
+        if (isNone() || !(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object notReady = ((JavascriptExecutor) driver).executeScript(BrowserScripts.READINESS, toScript());
+        return notReady == null ? null : notReady.toString();
+    }
+
+    /**
+     * Evaluate the signals once, while holding the State so that a wait polled in the background never uses the
+     * driver at the same time.
+     *
+     * @param state                         The state of the page, may be null if there is no way to tell
+     *
+     * @return                              The name of the first signal that isn't idle, or null if the page is
+     *                                      ready
+     */
+    String check(State state) {
+        if (isNone() || state == null) {
+            return null;
+        }
+        return state.exclusively(() -> check(state.getDriver()));
+    }
+
+    /**
+     * @return                              The argument expected by {@link BrowserScripts#READINESS}
+     */
+    Map<String, Object> toScript() {
+        Map<String, Object> script = new HashMap<>();
+        script.put("documentComplete", documentComplete);
+        script.put("networkIdleMillis", networkIdleMillis);
+        script.put("animationsIdle", animationsIdle);
+        return script;
+    }
+
+    @Override
+    public String toString() {
+        return "Readiness(documentComplete=" + documentComplete + ", networkIdleMillis=" + networkIdleMillis
+                + ", animationsIdle=" + animationsIdle + ")";
+    }
+}
@@ -0,0 +1,186 @@
+package com.jcleary.webdriver;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads the same fields out of every row found by a {@link Selector} in a single round trip to the browser.  Each
+ * field is located relative to its row by another Selector's locator, and the values of a row are handed over as a
+ * map of field names to text or attribute values.
+ *
+ * <pre>
+ *     List&lt;RedditPost&gt; posts = postRow.extract()
+ *             .text("name", postTitle)
+ *             .text("karma", postKarma)
+ *             .as(row -&gt; new RedditPost(row.get("karma"), row.get("name"), -2));
+ * </pre>
+ *
+ * Drivers that can't execute JavaScript fall back to finding each field in each row.
+ */
+public final class RowExtractor {
+
+    private final Selector rows;
+    private final List<String> names = new ArrayList<>();
+    private final List<Selector> selectors = new ArrayList<>();
+    private final List<String> attributes = new ArrayList<>();
+
+    RowExtractor(Selector rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Read the visible text of the first element in each row located by a Selector's locator.
+     *
+     * @param name                          The name of the field
+     * @param field                         The Selector whose locator finds the field relative to a row
+     *
+     * @return                              This RowExtractor
+     */
+    public RowExtractor text(String name, Selector field) {
+        return add(name, field, null);
+    }
+
+    /**
+     * Read an attribute of the first element in each row located by a Selector's locator.
+     *
+     * @param name                          The name of the field
+     * @param field                         The Selector whose locator finds the field relative to a row
+     * @param attribute                     The attribute to read
+     *
+     * @return                              This RowExtractor
+     */
+    public RowExtractor attribute(String name, Selector field, String attribute) {
+        return add(name, field, attribute);
+    }
+
+    /**
+     * Read every row as a map of field names to values.  A value is null if the field's element is absent from
+     * the row.
+     *
+     * @return                              One map per row, in document order
+     */
+    public List<Map<String, String>> rows() {
+        List<List<String>> values = read();
+        List<Map<String, String>> mapped = new ArrayList<>(values.size());
+
+        for (List<String> row : values) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                fields.put(names.get(i), row.get(i));
+            }
+            mapped.add(fields);
+        }
+        return mapped;
+    }
+
+    /**
+     * Read every row and convert it.
+     *
+     * @param mapper                        Converts the map of field names to values of a row
+     *
+     * @return                              One converted object per row, in document order
+     */
+    public <T> List<T> as(Function<Map<String, String>, T> mapper) {
+        List<T> mapped = new ArrayList<>();
+
+        for (Map<String, String> row : rows()) {
+            mapped.add(mapper.apply(row));
+        }
+        return mapped;
+    }
+
+    /**
+     * Read every row into a new bean, assigning each value to the bean field of the same name.  Text is converted
+     * to the field's type, which may be a String, primitive or primitive wrapper.  Fields of absent elements are
+     * left untouched.
+     *
+     * @param bean                          A class with a no argument constructor
+     *
+     * @return                              One bean per row, in document order
+     *
+     * @exception IllegalArgumentException  If the bean lacks a field or a no argument constructor
+     */
+    public <T> List<T> into(Class<T> bean) {
+        BeanMapper<T> mapper = BeanMapper.of(bean, names);
+        return as(mapper::map);
+    }
+
+    private RowExtractor add(String name, Selector field, String attribute) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("The field " + name + " is already being extracted.");
+        }
+        names.add(name);
+        selectors.add(field);
+        attributes.add(attribute);
+        return this;
+    }
+
+    /**
+     * Read the rows while holding the State, see {@link com.jcleary.core.State#exclusively}, so that a wait polled
+     * in the background never uses the driver at the same time.
+     */
+    private List<List<String>> read() {
+        return rows.getState().exclusively(this::readExclusively);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> readExclusively() {
+        WebDriver driver = rows.getState().getDriver();
+
+        if (!(driver instanceof JavascriptExecutor)) {
+            return readEachRow();
+        }
+
+        List<List<String>> fields = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            fields.add(Arrays.asList(selectors.get(i).getType().name(), selectors.get(i).getLocator(),
+                    attributes.get(i)));
+        }
+
+        Object response = ((JavascriptExecutor) driver).executeScript(
+                BrowserScripts.EXTRACT, rows.getType().name(), rows.getLocator(), fields);
+
+        if (!(response instanceof List)) {
+            throw new WebDriverException("Unexpected response while extracting rows of " + rows + ": " + response);
+        }
+
+        List<List<String>> values = new ArrayList<>();
+        for (Object row : (List<Object>) response) {
+            List<String> strings = new ArrayList<>();
+            for (Object value : (List<Object>) row) {
+                strings.add(value == null ? null : value.toString());
+            }
+            values.add(strings);
+        }
+        return values;
+    }
+
+    private List<List<String>> readEachRow() {
+        List<List<String>> values = new ArrayList<>();
+
+        for (WebElement row : rows.getMultiple()) {
+            List<String> strings = new ArrayList<>();
+
+            for (int i = 0; i < names.size(); i++) {
+                try {
+                    WebElement element = row.findElement(selectors.get(i).getBy());
+                    strings.add(attributes.get(i) == null ? element.getText() : element.getAttribute(attributes.get(i)));
+                } catch (NoSuchElementException e) {
+                    strings.add(null);
+                }
+            }
+            values.add(strings);
+        }
+        return values;
+    }
+}
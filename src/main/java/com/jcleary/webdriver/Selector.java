@@ -2,13 +2,21 @@ package com.jcleary.webdriver;
 
 import com.jcleary.annotations.Hack;
 import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.FixedWaitStrategy;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import com.jcleary.webdriver.wait.Waiter;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.*;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static com.jcleary.webdriver.ByFactory.*;
 import static java.util.stream.Collectors.toList;
@@ -38,6 +46,44 @@ public class Selector {
      */
     private long pollingIntervalPeriodMillis = 200L;
 
+    /**
+     * Decides how long to sleep between attempts while waiting.  Polls every {@link #pollingIntervalPeriodMillis}
+     * unless another strategy is assigned.
+     */
+    private WaitStrategy waitStrategy = new FixedWaitStrategy(pollingIntervalPeriodMillis);
+
+    /**
+     * When true, waits on an {@link ElementCondition} block on a MutationObserver inside the browser instead of
+     * polling.  Other conditions are always polled.
+     */
+    private boolean eventDriven = false;
+
+    /**
+     * When true, the located elements are reused until they go stale or the browser navigates.
+     */
+    private boolean cachingElements = false;
+
+    private WebElement cachedElement;
+    private List<WebElement> cachedElements;
+
+    /**
+     * The {@link State#getNavigationCount()} when the cached elements were located.
+     */
+    private long cachedAtNavigation;
+
+    /**
+     * When true, text, attributes other than property-backed ones, visibility and counts are reused until the
+     * {@link DomEpoch} changes.
+     */
+    private boolean cachingReads = false;
+
+    private final Map<String, Object> reads = new HashMap<>();
+
+    /**
+     * The epoch the values in {@link #reads} were read at.
+     */
+    private String readsEpoch;
+
     /**
      * Used for getting system time and performing basic operations.
      */
@@ -96,8 +142,92 @@ public class Selector {
         return pollingIntervalPeriodMillis;
     }
 
+    /**
+     * Poll at a fixed interval, replacing any assigned {@link WaitStrategy}.
+     *
+     * @param pollingIntervalPeriodMillis   The number of milliseconds between attempts
+     */
     public void setPollingIntervalPeriodMillis(long pollingIntervalPeriodMillis) {
         this.pollingIntervalPeriodMillis = pollingIntervalPeriodMillis;
+        this.waitStrategy = new FixedWaitStrategy(pollingIntervalPeriodMillis);
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    /**
+     * Wait on {@link ElementCondition}s inside the browser, answering as soon as the document changes into the
+     * expected state rather than on the next poll.  Requires a driver that can execute JavaScript, otherwise waits
+     * keep polling.  Waits also fall back to polling when the page is unable to wait, such as in a browser without
+     * MutationObserver.
+     *
+     * @param eventDriven                   True to wait inside the browser
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    public boolean isCachingElements() {
+        return cachingElements;
+    }
+
+    /**
+     * Reuse the located WebElements between operations instead of finding them again every time.  The cache is
+     * dropped when the browser navigates through a {@link Page} or {@link State#navigated()}, and single element
+     * operations transparently locate the element again once if it has gone stale.
+     *
+     * Cached lists aren't revalidated against elements added to the page afterwards, call {@link #invalidate()}
+     * when the list is expected to have changed.  Waits always locate their elements fresh.
+     *
+     * @param cachingElements               True to cache located elements
+     */
+    public void setCachingElements(boolean cachingElements) {
+        this.cachingElements = cachingElements;
+        invalidate();
+    }
+
+    public boolean isCachingReads() {
+        return cachingReads;
+    }
+
+    /**
+     * Reuse the text, attributes, visibility and count read from the page for as long as the page doesn't change.
+     * A change is detected by an epoch counter maintained by a MutationObserver in the page, together with this
+     * framework's own navigations and interactions, so a repeated read costs a single cheap script call instead of
+     * locating the element and reading it.
+     *
+     * Changes that aren't DOM mutations, such as styles applied by hovering, aren't detected.  Attributes backed by
+     * a live property, such as the value of a text field or whether a checkbox is checked, change without a DOM
+     * mutation when typed into, clicked or set by a script, so they are always read from the page.  Requires a
+     * driver that can execute JavaScript, otherwise every read goes to the page.
+     *
+     * @param cachingReads                  True to cache reads
+     */
+    public void setCachingReads(boolean cachingReads) {
+        this.cachingReads = cachingReads;
+        invalidate();
+    }
+
+    /**
+     * Drop any cached WebElements and values so that the next operation reads them from the page again.
+     */
+    public void invalidate() {
+        state.exclusively(() -> {
+            cachedElement = null;
+            cachedElements = null;
+            reads.clear();
+            readsEpoch = null;
+            return null;
+        });
     }
 
     public By getBy() {
@@ -112,7 +242,9 @@ public class Selector {
      * @exception NoSuchElementException    If no element is found by WebDriver
      */
     public WebElement get() {
-        return state.getDriver().findElement(type.get(locator));
+        return state.exclusively(() -> cachingElements && cachedElement != null && isCacheCurrent()
+                ? cachedElement
+                : find(true));
     }
 
     /**
@@ -127,11 +259,22 @@ public class Selector {
      * @exception NoSuchElementException    If no element is found by WebDriver that satisfies the predicate
      */
     public WebElement getWhere(Predicate<WebElement> condition) {
-        try {
-            return getMultiple().stream().filter(condition::test).findFirst().get();
-        } catch (java.util.NoSuchElementException e) {
-            throw new NoSuchElementException("Could not find an element that satisfies the predicate.", e);
-        }
+        return state.exclusively(() -> {
+            List<WebElement> filtered = filterInBrowser(condition, true);
+
+            if (filtered != null) {
+                if (filtered.isEmpty()) {
+                    throw new NoSuchElementException("Could not find an element that is " + condition + ".");
+                }
+                return filtered.get(0);
+            }
+
+            try {
+                return getMultiple().stream().filter(condition::test).findFirst().get();
+            } catch (java.util.NoSuchElementException e) {
+                throw new NoSuchElementException("Could not find an element that satisfies the predicate.", e);
+            }
+        });
     }
 
     /**
@@ -141,7 +284,9 @@ public class Selector {
      * @return                              A List of all WebElements that are found by this Selector's locator
      */
     public List<WebElement> getMultiple() {
-        return state.getDriver().findElements(type.get(locator));
+        return state.exclusively(() -> cachingElements && cachedElements != null && isCacheCurrent()
+                ? cachedElements
+                : findAll(true));
     }
 
     /**
@@ -154,20 +299,60 @@ public class Selector {
      *                                      Selector's locator and satisfies the predicate
      */
     public List<WebElement> getMultipleWhere(Predicate<WebElement> condition) {
-        return getMultiple().stream().filter(condition::test).collect(toList());
+        return state.exclusively(() -> {
+            List<WebElement> filtered = filterInBrowser(condition, false);
+
+            if (filtered != null) {
+                return filtered;
+            }
+            return getMultiple().stream().filter(condition::test).collect(toList());
+        });
+    }
+
+    /**
+     * Count the WebElements found by this Selector's {@link #locator}.
+     *
+     * @return                              The number of WebElements found
+     */
+    public int count() {
+        return readThrough("count", true, () -> ImplicitWait.suspended(state, () -> getMultiple().size()));
+    }
+
+    /**
+     * Get the first found occurrence of a WebElement that matches this Selector's {@link #locator} without
+     * throwing when there is none.  Absence is detected from an empty {@code findElements} result, which avoids
+     * the cost of an exception and of the driver's implicit wait for a missing element.
+     *
+     * @return                              The first WebElement found, or empty if there is none
+     */
+    public Optional<WebElement> findOptional() {
+        return state.exclusively(() -> ImplicitWait.suspended(state, () -> findAll(true))).stream().findFirst();
+    }
+
+    /**
+     * Get the first matching occurrence of a WebElement that satisfies a predicate without throwing when there is
+     * none.
+     *
+     * @param condition                     A predicate that accepts a WebElement
+     *                                      parameter and evaluate to true or false
+     *
+     * @return                              The first WebElement that satisfies the predicate, or empty if there
+     *                                      is none
+     */
+    public Optional<WebElement> findOptionalWhere(Predicate<WebElement> condition) {
+        return getMultipleWhere(condition).stream().findFirst();
     }
 
+    /**
+     * @return                              True if at least one WebElement is found by this Selector's
+     *                                      {@link #locator}
+     */
     public boolean isPresent() {
-        try {
-            get();
-            return true;
-        } catch (NoSuchElementException e) {
-            return false;
-        }
+        return findOptional().isPresent();
     }
 
     public boolean isDisplayed() {
-        return get().isDisplayed();
+        return readThrough("displayed", true, () -> onElement(WebElement::isDisplayed));
     }
 
     /**
@@ -176,8 +361,11 @@ public class Selector {
      * @return                              This Selector instance
      */
     public Selector click() {
-        get().click();
-        return this;
+        return state.exclusively(() -> {
+            onElement(e -> { e.click(); return null; });
+            interacted();
+            return this;
+        });
     }
 
     /**
@@ -186,8 +374,11 @@ public class Selector {
      * @return                              This Selector instance
      */
     public Selector submit() {
-        get().submit();
-        return this;
+        return state.exclusively(() -> {
+            onElement(e -> { e.submit(); return null; });
+            interacted();
+            return this;
+        });
     }
 
     /**
@@ -198,8 +389,11 @@ public class Selector {
      * @return                              This Selector instance
      */
     public Selector sendKeys(CharSequence...chars) {
-        get().sendKeys(chars);
-        return this;
+        return state.exclusively(() -> {
+            onElement(e -> { e.sendKeys(chars); return null; });
+            interacted();
+            return this;
+        });
     }
 
     /**
@@ -208,8 +402,11 @@ public class Selector {
      * @return                              This Selector instance
      */
     public Selector clear() {
-        get().clear();
-        return this;
+        return state.exclusively(() -> {
+            onElement(e -> { e.clear(); return null; });
+            interacted();
+            return this;
+        });
     }
 
     /**
@@ -218,11 +415,12 @@ public class Selector {
      * @return                              The tag name of the first found element
      */
     public String getTagName() {
-        return get().getTagName();
+        return onElement(WebElement::getTagName);
     }
 
     public String getAttribute(String name) {
-        return get().getAttribute(name);
+        return readThrough("attribute:" + name, !DomEpoch.isPropertyBacked(name),
+                () -> onElement(e -> e.getAttribute(name)));
     }
 
     /**
@@ -231,7 +429,7 @@ public class Selector {
      * @return                              All visible text contained in the first found WebElement
      */
     public String getText() {
-        return get().getText();
+        return readThrough("text", true, () -> onElement(WebElement::getText));
     }
 
     /**
@@ -246,35 +444,40 @@ public class Selector {
      *                                      the predicate before the time limit
      */
     public Selector waitUntil(Predicate<WebElement> condition) {
-        long delay = clock.laterBy(timeoutMillis);
-
-        // Stores the latest thrown exception while waiting.
-        Throwable storedException = null;
-
-        while (clock.isNowBefore(delay)) {
+        long start = clock.now();
 
+        if (eventDriven && MutationWait.supports(state.getDriver(), condition)) {
             try {
-                if (condition.test(get())) {
-                    return this;
-                }
-            } catch (NoSuchElementException e) {
-                storedException = e;
-            }
-            try {
-                sleeper.sleep(new Duration(pollingIntervalPeriodMillis, TimeUnit.MILLISECONDS));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                MutationWait.await(this, (ElementCondition) condition, true, timeoutMillis);
+                return this;
+            } catch (TimeoutException e) {
+                throw new TimeoutException("Timed out after " + timeoutMillis + " milliseconds waiting for the " +
+                        "first found element to be " + condition + ".", e);
+            } catch (WebDriverException e) {
+                // The browser is unable to wait for the condition, such as without MutationObserver, so poll for it.
             }
         }
 
+        Waiter.Outcome<Selector> outcome = ImplicitWait.suspended(state, () -> waiter().until(locator,
+                remainingMillis(start),
+                () -> state.exclusively(() -> {
+                    Optional<WebElement> first = findAll(false).stream().findFirst();
+                    return first.isPresent() && condition.test(first.get()) ? this : null;
+                }),
+                NoSuchElementException.class));
+
+        if (outcome.isSatisfied()) {
+            return this;
+        }
+
         String throwMessage = "Timed out after " + timeoutMillis + " milliseconds waiting for the " +
                 "first found element to match the predicate.";
 
         // Check if we have causation
-        if (storedException == null) {
+        if (outcome.getLastIgnored() == null) {
             throw new TimeoutException(throwMessage);
         } else {
-            throw new TimeoutException(throwMessage, storedException);
+            throw new TimeoutException(throwMessage, outcome.getLastIgnored());
         }
 
     }
@@ -291,8 +494,15 @@ public class Selector {
      *                                      the expectations of the ExpectedConditions
      */
     public Selector waitUntilExpectedCondition(ExpectedCondition<WebElement> condition) {
-        new WebDriverWait(state.getDriver(), 10).until(condition);
-        return this;
+        Waiter.Outcome<WebElement> outcome = ImplicitWait.suspended(state, () -> waiter().until(locator, timeoutMillis,
+                () -> state.exclusively(() -> condition.apply(state.getDriver())),
+                NotFoundException.class));
+
+        if (outcome.isSatisfied()) {
+            return this;
+        }
+        throw new TimeoutException("Timed out after " + timeoutMillis + " milliseconds waiting for " + condition,
+                outcome.getLastIgnored());
     }
 
     /**
@@ -305,31 +515,289 @@ public class Selector {
      * @exception TimeoutException          If no elements are found within the timeout
      */
     public WebElement waitForFirstOccurrenceWhere(Predicate<WebElement> condition) {
-        long delay = clock.now() + timeoutMillis;
-
-        while (clock.isNowBefore(delay)) {
+        long start = clock.now();
 
+        if (eventDriven && MutationWait.supports(state.getDriver(), condition)) {
             try {
-                Optional<WebElement> maybeWebElement = getMultiple()
+                return MutationWait.await(this, (ElementCondition) condition, false, timeoutMillis);
+            } catch (TimeoutException e) {
+                throw new TimeoutException("Timed out waiting for the first occurrence of an element that is "
+                        + condition + ".", e);
+            } catch (WebDriverException e) {
+                // The browser is unable to wait for the condition, such as without MutationObserver, so poll for it.
+            }
+        }
+
+        Waiter.Outcome<WebElement> outcome = ImplicitWait.suspended(state, () -> waiter().until(locator,
+                remainingMillis(start),
+                () -> state.exclusively(() -> findAll(false)
                         .stream()
                         .filter(condition)
-                        .findFirst();
+                        .findFirst()
+                        .orElse(null)),
+                NoSuchElementException.class));
 
-                if (maybeWebElement.isPresent()) {
-                    return maybeWebElement.get();
-                }
-            } catch (NoSuchElementException e) {
-                continue;
-            }
+        if (outcome.isSatisfied()) {
+            return outcome.getValue();
+        }
+        throw new TimeoutException("Timed out waiting for the first occurrence of an element that matches the predicate.");
+    }
+
+    /**
+     * Wait until the first found WebElement satisfies a predicate without blocking the calling thread.  The wait is
+     * polled by the {@link PollScheduler#shared() shared scheduler} along with every other wait on the same State.
+     *
+     * @param condition                     A predicate that accepts a WebElement
+     *                                      parameter and results to true or false
+     *
+     * @return                              A future completed with this Selector instance, or exceptionally with a
+     *                                      TimeoutException if the first found WebElement does not satisfy the
+     *                                      predicate before the time limit
+     */
+    public CompletableFuture<Selector> waitUntilAsync(Predicate<WebElement> condition) {
+        return PollScheduler.shared().submit(state, locator, timeoutMillis, waitStrategy,
+                () -> {
+                    Optional<WebElement> first = findAll(true).stream().findFirst();
+                    return first.isPresent() && condition.test(first.get()) ? this : null;
+                },
+                NoSuchElementException.class,
+                last -> {
+                    throw new TimeoutException("Timed out after " + timeoutMillis + " milliseconds waiting for the "
+                            + "first found element to match the predicate.", last);
+                });
+    }
+
+    /**
+     * Wait until this Selector's locator finds at least one WebElement under the given Predicate without blocking
+     * the calling thread, see {@link #waitUntilAsync(Predicate)}.
+     *
+     * @param condition                     The condition to be satisfied.  Returns true or false
+     *
+     * @return                              A future completed with the first found WebElement, or exceptionally
+     *                                      with a TimeoutException if no elements are found within the timeout
+     */
+    public CompletableFuture<WebElement> waitForFirstOccurrenceWhereAsync(Predicate<WebElement> condition) {
+        return PollScheduler.shared().submit(state, locator, timeoutMillis, waitStrategy,
+                () -> findAll(true).stream().filter(condition).findFirst().orElse(null),
+                NoSuchElementException.class,
+                last -> {
+                    throw new TimeoutException("Timed out waiting for the first occurrence of an element that "
+                            + "matches the predicate.", last);
+                });
+    }
+
+    /**
+     * Start extracting fields out of every row found by this Selector's {@link #locator} in a single round trip.
+     *
+     * @return                              A RowExtractor to declare the fields on
+     */
+    public RowExtractor extract() {
+        return new RowExtractor(this);
+    }
+
+    /**
+     * Read the visible text of several fields out of every row found by this Selector's {@link #locator} and
+     * convert each row in a single round trip.
+     *
+     * @param fields                        The field names mapped to the Selectors that locate them relative to
+     *                                      a row
+     * @param mapper                        Converts the map of field names to text of a row
+     *
+     * @return                              One converted object per row
+     */
+    public <T> List<T> extract(Map<String, Selector> fields, Function<Map<String, String>, T> mapper) {
+        RowExtractor extractor = extract();
+        fields.forEach(extractor::text);
+        return extractor.as(mapper);
+    }
+
+    /**
+     * Read the visible text of several fields out of every row found by this Selector's {@link #locator} into
+     * beans in a single round trip.  See {@link RowExtractor#into(Class)}.
+     *
+     * @param fields                        The bean field names mapped to the Selectors that locate them relative
+     *                                      to a row
+     * @param bean                          A class with a no argument constructor
+     *
+     * @return                              One bean per row
+     */
+    public <T> List<T> extract(Map<String, Selector> fields, Class<T> bean) {
+        RowExtractor extractor = extract();
+        fields.forEach(extractor::text);
+        return extractor.into(bean);
+    }
+
+    /**
+     * Read the presence, visibility, text and count of several Selectors in a single round trip to the browser.
+     * Use {@link SelectorBatch} directly to also read attributes.
+     *
+     * @param selectors                     The Selectors to read.  All must share the same {@link State}
+     *
+     * @return                              A snapshot for each Selector
+     */
+    public static SelectorBatch.Result queryAll(Selector...selectors) {
+        if (selectors.length == 0) {
+            throw new IllegalArgumentException("At least one selector is required.");
+        }
+        SelectorBatch batch = new SelectorBatch(selectors[0].getState());
+
+        for (Selector selector : selectors) {
+            batch.add(selector);
+        }
+        return batch.execute();
+    }
+
+    /**
+     * Locate the first element, bypassing and then refreshing the cache.
+     *
+     * @param memoized                      True to reuse the element located in the current {@link QueryContext}
+     */
+    private WebElement find(boolean memoized) {
+        QueryContext context = QueryContext.current();
+        WebElement element = memoized && context != null
+                ? context.memoize(Arrays.asList(state, type, locator, "element"), () -> findAll(true)
+                        .stream()
+                        .findFirst()
+                        .orElseThrow(() -> new NoSuchElementException("Unable to locate " + this)))
+                : state.getDriver().findElement(type.get(locator));
+
+        if (cachingElements) {
+            isCacheCurrent();
+            cachedElement = element;
+            cachedAtNavigation = state.getNavigationCount();
+        }
+        return element;
+    }
+
+    /**
+     * Locate every element, bypassing and then refreshing the cache.
+     *
+     * @param memoized                      True to reuse the elements located in the current {@link QueryContext}
+     */
+    List<WebElement> findAll(boolean memoized) {
+        QueryContext context = QueryContext.current();
+        List<WebElement> elements = memoized && context != null
+                ? context.memoize(Arrays.asList(state, type, locator, "elements"),
+                        () -> state.getDriver().findElements(type.get(locator)))
+                : state.getDriver().findElements(type.get(locator));
+
+        if (cachingElements) {
+            isCacheCurrent();
+            cachedElements = elements;
+            cachedAtNavigation = state.getNavigationCount();
+        }
+        return elements;
+    }
+
+    /**
+     * Drops the cache if the browser navigated since it was filled.
+     *
+     * @return                              True if the cache is still current
+     */
+    private boolean isCacheCurrent() {
+        if (cachedAtNavigation == state.getNavigationCount()) {
+            return true;
+        }
+        invalidate();
+        return false;
+    }
+
+    /**
+     * Read a value from the page, or reuse the value read in the current {@link QueryContext}, or at the current
+     * {@link DomEpoch} when caching reads.
+     *
+     * @param epochCached                   False for values that can change without a DOM mutation, which are
+     *                                      never reused across epochs
+     */
+    private <T> T readThrough(String key, boolean epochCached, Supplier<T> read) {
+        QueryContext context = QueryContext.current();
+        Supplier<T> cached = () -> state.exclusively(epochCached ? () -> readCached(key, read) : read);
+
+        if (context != null) {
+            return context.memoize(Arrays.asList(state, type, locator, key), cached);
+        }
+        return cached.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readCached(String key, Supplier<T> read) {
+        if (!cachingReads) {
+            return read.get();
+        }
+        String epoch = DomEpoch.of(state);
+
+        if (epoch == null) {
+            return read.get();
+        }
+        if (!epoch.equals(readsEpoch)) {
+            reads.clear();
+            readsEpoch = epoch;
+        }
+        if (reads.containsKey(key)) {
+            return (T) reads.get(key);
+        }
+        T value = read.get();
+        reads.put(key, value);
+        return value;
+    }
+
+    /**
+     * Record an interaction so that values read before it are read again.
+     */
+    private void interacted() {
+        reads.clear();
+        QueryContext.clearCurrent();
+        state.interacted();
+    }
+
+    /**
+     * Perform an operation on the first found element.  When caching, a stale element is located again once.
+     */
+    private <T> T onElement(Function<WebElement, T> operation) {
+        return state.exclusively(() -> {
             try {
-                sleeper.sleep(new Duration(pollingIntervalPeriodMillis, TimeUnit.MILLISECONDS));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
+                return operation.apply(get());
+            } catch (StaleElementReferenceException e) {
+                if (!cachingElements) {
+                    throw e;
+                }
+                return operation.apply(find(false));
             }
+        });
+    }
 
+    /**
+     * Filter the located elements inside the browser in a single round trip.
+     *
+     * @return                              The matching elements, or null if the condition can't be evaluated in
+     *                                      the browser and must be tested in Java instead
+     */
+    @SuppressWarnings("unchecked")
+    private List<WebElement> filterInBrowser(Predicate<WebElement> condition, boolean firstOnly) {
+        WebDriver driver = state.getDriver();
+
+        if (!(condition instanceof ElementCondition) || !(driver instanceof JavascriptExecutor)) {
+            return null;
         }
-        throw new TimeoutException("Timed out waiting for the first occurrence of an element that matches the predicate.");
+        Object found = ((JavascriptExecutor) driver).executeScript(BrowserScripts.FILTER, type.name(), locator,
+                ((ElementCondition) condition).toScript(), firstOnly);
+
+        return found instanceof List ? (List<WebElement>) found : null;
+    }
+
+    /**
+     * @param start                         When the wait started, by {@link #clock}
+     *
+     * @return                              The part of {@link #timeoutMillis} that is left, so that a wait falling back
+     *                                      to polling after waiting in the browser doesn't start its timeout over.
+     *                                      At least a millisecond, so that the fallback still checks the page once
+     */
+    private long remainingMillis(long start) {
+        return Math.max(1L, timeoutMillis - (clock.now() - start));
+    }
+
+    private Waiter waiter() {
+        return new Waiter(waitStrategy, clock, sleeper);
     }
 
     public State getState() {
@@ -343,4 +811,9 @@ public class Selector {
     public ByFactory getType() {
         return type;
     }
+
+    @Override
+    public String toString() {
+        return "Selector{" + type + ": " + locator + "}";
+    }
 }
\ No newline at end of file
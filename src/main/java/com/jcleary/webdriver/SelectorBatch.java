@@ -0,0 +1,164 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the presence, visibility, text, attributes and count of many {@link Selector}s in a single round trip to
+ * the browser.  Every Selector read would otherwise be a {@code findElement} command followed by an element
+ * command, which adds up quickly on a remote driver.
+ *
+ * If the driver is not able to execute JavaScript, each Selector is read individually instead.
+ */
+public class SelectorBatch {
+
+    private final State state;
+
+    private final Map<Selector, Set<String>> queries = new LinkedHashMap<>();
+
+    public SelectorBatch(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Include a Selector in this batch.  Adding the same Selector more than once merges the requested attributes.
+     *
+     * @param selector                      The Selector to read
+     * @param attributes                    Names of the attributes to read from the first found element
+     *
+     * @return                              This SelectorBatch instance
+     */
+    public SelectorBatch add(Selector selector, String...attributes) {
+        if (selector.getState() != state) {
+            throw new IllegalArgumentException(selector + " does not belong to the state of this batch.");
+        }
+        queries.computeIfAbsent(selector, s -> new LinkedHashSet<>()).addAll(Arrays.asList(attributes));
+        return this;
+    }
+
+    /**
+     * Resolve every Selector in this batch, while holding the State so that a wait polled in the background never
+     * uses the driver at the same time.
+     *
+     * @return                              A snapshot for each Selector that was added
+     */
+    public Result execute() {
+        if (queries.isEmpty()) {
+            return new Result(Collections.emptyMap());
+        }
+
+        return state.exclusively(() -> {
+            WebDriver driver = state.getDriver();
+
+            if (driver instanceof JavascriptExecutor) {
+                return executeScript((JavascriptExecutor) driver);
+            }
+            return executeIndividually();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Result executeScript(JavascriptExecutor executor) {
+        List<List<Object>> arguments = new ArrayList<>();
+
+        for (Map.Entry<Selector, Set<String>> query : queries.entrySet()) {
+            arguments.add(Arrays.asList(
+                    query.getKey().getType().name(),
+                    query.getKey().getLocator(),
+                    new ArrayList<>(query.getValue())));
+        }
+
+        Object response = executor.executeScript(BrowserScripts.QUERY_ALL, arguments);
+
+        if (!(response instanceof List) || ((List<?>) response).size() != queries.size()) {
+            throw new WebDriverException("Unexpected response while querying a batch of selectors: " + response);
+        }
+
+        Map<Selector, SelectorSnapshot> snapshots = new LinkedHashMap<>();
+        int index = 0;
+
+        for (Selector selector : queries.keySet()) {
+            Map<String, Object> result = (Map<String, Object>) ((List<?>) response).get(index++);
+            Map<String, String> attributes = new HashMap<>();
+
+            ((Map<String, Object>) result.get("attributes"))
+                    .forEach((name, value) -> attributes.put(name, value == null ? null : value.toString()));
+
+            snapshots.put(selector, new SelectorSnapshot(
+                    selector,
+                    ((Number) result.get("count")).intValue(),
+                    Boolean.TRUE.equals(result.get("displayed")),
+                    (String) result.get("text"),
+                    attributes));
+        }
+        return new Result(snapshots);
+    }
+
+    private Result executeIndividually() {
+        Map<Selector, SelectorSnapshot> snapshots = new LinkedHashMap<>();
+
+        for (Map.Entry<Selector, Set<String>> query : queries.entrySet()) {
+            Selector selector = query.getKey();
+            List<WebElement> found = selector.getMultiple();
+            Map<String, String> attributes = new HashMap<>();
+
+            if (found.isEmpty()) {
+                snapshots.put(selector, new SelectorSnapshot(selector, 0, false, null, attributes));
+                continue;
+            }
+
+            WebElement first = found.get(0);
+
+            for (String name : query.getValue()) {
+                attributes.put(name, first.getAttribute(name));
+            }
+            snapshots.put(selector, new SelectorSnapshot(
+                    selector, found.size(), first.isDisplayed(), first.getText(), attributes));
+        }
+        return new Result(snapshots);
+    }
+
+    /**
+     * The snapshots produced by executing a {@link SelectorBatch}.
+     */
+    public static class Result {
+
+        private final Map<Selector, SelectorSnapshot> snapshots;
+
+        Result(Map<Selector, SelectorSnapshot> snapshots) {
+            this.snapshots = Collections.unmodifiableMap(snapshots);
+        }
+
+        /**
+         * @param selector                  A Selector that was added to the batch
+         *
+         * @return                          The snapshot of that Selector
+         *
+         * @exception IllegalArgumentException  If the Selector was not part of the batch
+         */
+        public SelectorSnapshot get(Selector selector) {
+            SelectorSnapshot snapshot = snapshots.get(selector);
+            if (snapshot == null) {
+                throw new IllegalArgumentException(selector + " was not part of this batch.");
+            }
+            return snapshot;
+        }
+
+        public Map<Selector, SelectorSnapshot> asMap() {
+            return snapshots;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.jcleary.webdriver;
+
+import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import com.jcleary.webdriver.wait.Waiter;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Waits on several {@link Selector}s at once, such as a success banner, an error toast and a captcha after submitting
+ * a form.  Every candidate is checked on each attempt, so waiting doesn't depend on guessing which outcome comes
+ * first and giving each a short timeout in turn.
+ *
+ * Candidates whose condition is an {@link ElementCondition} are checked together in a single round trip to the
+ * browser.  Other candidates are checked from Java, locating each Selector once per attempt.
+ */
+public class SelectorRace {
+
+    private final State state;
+
+    private final Map<Selector, Predicate<WebElement>> candidates = new LinkedHashMap<>();
+
+    private WaitStrategy waitStrategy = WaitStrategy.DEFAULT;
+
+    public SelectorRace(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Race every Selector of a map against each other.
+     *
+     * @param state                         The state every Selector belongs to
+     * @param candidates                    Each Selector along with the condition an element must satisfy
+     *
+     * @return                              A race between the candidates, in the iteration order of the map
+     */
+    public static SelectorRace of(State state, Map<Selector, ? extends Predicate<WebElement>> candidates) {
+        SelectorRace race = new SelectorRace(state);
+        candidates.forEach(race::add);
+        return race;
+    }
+
+    /**
+     * Include a candidate in this race.  Adding the same Selector again replaces its condition.
+     *
+     * @param selector                      The Selector to locate elements with
+     * @param condition                     The condition any one located element must satisfy
+     *
+     * @return                              This SelectorRace instance
+     */
+    public SelectorRace add(Selector selector, Predicate<WebElement> condition) {
+        if (selector.getState() != state) {
+            throw new IllegalArgumentException(selector + " does not belong to the state of this race.");
+        }
+        candidates.put(selector, condition);
+        return this;
+    }
+
+    /**
+     * @param waitStrategy                  Decides how long to sleep between attempts
+     *
+     * @return                              This SelectorRace instance
+     */
+    public SelectorRace withWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Wait until any candidate has an element that satisfies its condition.  When several candidates are satisfied
+     * by the same attempt, the one that was added first wins.
+     *
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     *
+     * @return                              The candidate that was satisfied and its element
+     *
+     * @exception TimeoutException          If no candidate is satisfied before the time limit
+     */
+    public Match waitForAny(long timeoutMillis) {
+        Waiter.Outcome<Match> outcome = ImplicitWait.suspended(state, () -> new Waiter(waitStrategy)
+                .until(key(), timeoutMillis, () -> {
+                    Map<Selector, WebElement> found = poll();
+                    return found.isEmpty() ? null : new Match(found.entrySet().iterator().next());
+                }));
+
+        if (outcome.isSatisfied()) {
+            return outcome.getValue();
+        }
+        throw new TimeoutException("Timed out after " + timeoutMillis + " milliseconds waiting for any of "
+                + candidates.keySet() + ".");
+    }
+
+    /**
+     * Wait until every candidate has an element that satisfies its condition on the same attempt.
+     *
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     *
+     * @return                              The element of each candidate, in the order they were added
+     *
+     * @exception TimeoutException          If the candidates are not all satisfied before the time limit
+     */
+    public Map<Selector, WebElement> waitForAll(long timeoutMillis) {
+        List<Selector> pending = new ArrayList<>(candidates.keySet());
+
+        Waiter.Outcome<Map<Selector, WebElement>> outcome = ImplicitWait.suspended(state, () -> new Waiter(waitStrategy)
+                .until(key(), timeoutMillis, () -> {
+                    Map<Selector, WebElement> found = poll();
+                    pending.clear();
+                    candidates.keySet().stream().filter(s -> !found.containsKey(s)).forEach(pending::add);
+                    return found.size() == candidates.size() ? Collections.unmodifiableMap(found) : null;
+                }));
+
+        if (outcome.isSatisfied()) {
+            return outcome.getValue();
+        }
+        throw new TimeoutException("Timed out after " + timeoutMillis + " milliseconds waiting for all of "
+                + candidates.keySet() + ", still waiting for " + pending + ".");
+    }
+
+    /**
+     * Check every candidate once, while holding the State so that a wait polled in the background never uses the
+     * driver at the same time.
+     *
+     * @return                              The first satisfying element of each satisfied candidate, in the order
+     *                                      the candidates were added
+     */
+    Map<Selector, WebElement> poll() {
+        return state.exclusively(this::pollExclusively);
+    }
+
+    private Map<Selector, WebElement> pollExclusively() {
+        Map<Selector, WebElement> found = new LinkedHashMap<>();
+
+        try (QueryContext context = QueryContext.open()) {
+            Map<Selector, WebElement> inBrowser = pollInBrowser();
+
+            for (Map.Entry<Selector, Predicate<WebElement>> candidate : candidates.entrySet()) {
+                Selector selector = candidate.getKey();
+                WebElement element = inBrowser.containsKey(selector)
+                        ? inBrowser.get(selector)
+                        : firstMatch(selector, candidate.getValue());
+
+                if (element != null) {
+                    found.put(selector, element);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Check every candidate with an {@link ElementCondition} in a single script.
+     *
+     * @return                              The result of each candidate checked in the browser, null values for
+     *                                      those that weren't satisfied.  Empty if the script can't be used
+     */
+    private Map<Selector, WebElement> pollInBrowser() {
+        WebDriver driver = state.getDriver();
+
+        if (!(driver instanceof JavascriptExecutor)) {
+            return Collections.emptyMap();
+        }
+
+        List<Selector> selectors = new ArrayList<>();
+        List<List<Object>> queries = new ArrayList<>();
+
+        candidates.forEach((selector, condition) -> {
+            if (condition instanceof ElementCondition) {
+                selectors.add(selector);
+                queries.add(Arrays.asList(
+                        selector.getType().name(),
+                        selector.getLocator(),
+                        ((ElementCondition) condition).toScript()));
+            }
+        });
+
+        if (queries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Object response = ((JavascriptExecutor) driver).executeScript(BrowserScripts.FIRST_MATCHES, queries);
+
+        if (!(response instanceof List) || ((List<?>) response).size() != selectors.size()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Selector, WebElement> results = new LinkedHashMap<>();
+
+        for (int i = 0; i < selectors.size(); i++) {
+            Object element = ((List<?>) response).get(i);
+            results.put(selectors.get(i), element instanceof WebElement ? (WebElement) element : null);
+        }
+        return results;
+    }
+
+    private WebElement firstMatch(Selector selector, Predicate<WebElement> condition) {
+        for (WebElement element : selector.findAll(true)) {
+            try {
+                if (condition.test(element)) {
+                    return element;
+                }
+            } catch (StaleElementReferenceException e) {
+                // The element was replaced since it was located, it's located again on the next attempt.
+            }
+        }
+        return null;
+    }
+
+    private String key() {
+        return "race" + candidates.keySet();
+    }
+
+    /**
+     * The candidate that won a {@link #waitForAny(long)}.
+     */
+    public static final class Match {
+
+        private final Selector selector;
+        private final WebElement element;
+
+        private Match(Map.Entry<Selector, WebElement> entry) {
+            this.selector = entry.getKey();
+            this.element = entry.getValue();
+        }
+
+        /**
+         * @return                          The Selector of the candidate that was satisfied
+         */
+        public Selector getSelector() {
+            return selector;
+        }
+
+        /**
+         * @return                          The element that satisfied the candidate's condition
+         */
+        public WebElement getElement() {
+            return element;
+        }
+
+        /**
+         * @param selector                  A Selector that was added to the race
+         *
+         * @return                          True if that Selector's candidate won
+         */
+        public boolean is(Selector selector) {
+            return this.selector.equals(selector);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" + selector + "}";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jcleary.webdriver;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable record of what a {@link Selector} resolved to at the moment a {@link SelectorBatch} was executed.
+ *
+ * Unlike the Selector methods of the same name, reading a snapshot never touches the browser and never throws when
+ * the element was absent.  Unless stated otherwise each value describes the first found WebElement.
+ */
+public final class SelectorSnapshot {
+
+    private final Selector selector;
+    private final int count;
+    private final boolean displayed;
+    private final String text;
+    private final Map<String, String> attributes;
+
+    SelectorSnapshot(Selector selector, int count, boolean displayed, String text, Map<String, String> attributes) {
+        this.selector = selector;
+        this.count = count;
+        this.displayed = displayed;
+        this.text = text;
+        this.attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
+    }
+
+    public Selector getSelector() {
+        return selector;
+    }
+
+    /**
+     * @return                              True if at least one element was located
+     */
+    public boolean isPresent() {
+        return count > 0;
+    }
+
+    /**
+     * @return                              True if the first found element was visible to the user.  False if it
+     *                                      was hidden or absent
+     */
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    /**
+     * @return                              The visible text of the first found element, or null if it was absent
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get an attribute that was requested when the Selector was added to the batch.
+     *
+     * @param name                          The attribute name
+     *
+     * @return                              The attribute value, or null if the element was absent or doesn't
+     *                                      declare the attribute
+     *
+     * @exception IllegalArgumentException  If the attribute was never requested for this Selector
+     */
+    public String getAttribute(String name) {
+        if (isPresent() && !attributes.containsKey(name)) {
+            throw new IllegalArgumentException("The attribute <" + name + "> was not requested for " + selector);
+        }
+        return attributes.get(name);
+    }
+
+    /**
+     * @return                              The number of elements located
+     */
+    public int count() {
+        return count;
+    }
+}
@@ -0,0 +1,457 @@
+package com.jcleary.webdriver.processors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code com.jcleary.webdriver.GeneratedPagePlan} companion for each page class that declares
+ * {@code Page.Info} or Selector fields annotated with {@code Loadable.IsLoaded}, {@code Loadable.Loader} or
+ * {@code Loadable.FailsIf}.  The
+ * companion holds the resolved url template, the load criteria and a direct accessor for each annotated field, so
+ * pages don't need to be scanned reflectively at runtime.
+ *
+ * Contradicting criteria, such as {@code findExactly} combined with {@code findAtLeast}, are reported as compile
+ * errors.  Classes with private annotated fields can't be accessed by their companion, so a warning is reported and
+ * they keep being scanned reflectively.
+ */
+@SupportedAnnotationTypes({
+        PageProcessor.PAGE_INFO,
+        PageProcessor.IS_LOADED,
+        PageProcessor.LOADER,
+        PageProcessor.FAILS_IF,
+        PageProcessor.INHERIT_LOADERS
+})
+public class PageProcessor extends AbstractProcessor {
+
+    static final String PAGE = "com.jcleary.webdriver.Page";
+    static final String PAGE_INFO = "com.jcleary.webdriver.Page.Info";
+    static final String IS_LOADED = "com.jcleary.webdriver.Loadable.IsLoaded";
+    static final String LOADER = "com.jcleary.webdriver.Loadable.Loader";
+    static final String FAILS_IF = "com.jcleary.webdriver.Loadable.FailsIf";
+    static final String INHERIT_LOADERS = "com.jcleary.webdriver.Loadable.InheritLoaders";
+    static final String SELECTOR = "com.jcleary.webdriver.Selector";
+
+    private static final String SUFFIX = "_PagePlan";
+    private static final String TERNARY = "com.jcleary.util.Ternary";
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+
+        Set<TypeElement> pages = new LinkedHashSet<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    pages.add((TypeElement) element.getEnclosingElement());
+                } else if (element.getKind() == ElementKind.CLASS) {
+                    pages.add((TypeElement) element);
+                }
+            }
+        }
+
+        for (TypeElement page : pages) {
+            process(page);
+        }
+        return false;
+    }
+
+    private void process(TypeElement page) {
+        List<String> fields = new ArrayList<>();
+        boolean accessible = isAccessible(page);
+        boolean valid = validateInfo(page);
+
+        for (VariableElement field : ElementFilter.fieldsIn(page.getEnclosedElements())) {
+            AnnotationMirror isLoaded = mirror(field, IS_LOADED);
+            AnnotationMirror loader = mirror(field, LOADER);
+            AnnotationMirror failsIf = mirror(field, FAILS_IF);
+
+            if (isLoaded == null && loader == null && failsIf == null) {
+                continue;
+            }
+
+            if (failsIf != null) {
+                valid &= validateFailsIf(field, failsIf);
+            }
+            if (isLoaded != null || loader != null) {
+                valid &= validateField(field, isLoaded, loader);
+            }
+
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "The annotated field " + field.getSimpleName()
+                        + " is private, so " + page.getQualifiedName() + " can't be given a generated plan and "
+                        + "will be scanned reflectively at runtime.  Make the field package-private to avoid it.",
+                        field);
+                accessible = false;
+            }
+
+            if (failsIf != null) {
+                fields.add(failsIfField(page, field, failsIf));
+            }
+            if (isLoaded != null) {
+                fields.add(isLoadedField(page, field, isLoaded));
+            } else if (loader != null) {
+                fields.add(loaderField(page, field, loader));
+            }
+        }
+
+        if (valid && accessible) {
+            write(page, fields);
+        }
+    }
+
+    /*/*****************
+     * Validation      *
+     *******************/
+
+    private boolean validateInfo(TypeElement page) {
+        AnnotationMirror info = mirror(page, PAGE_INFO);
+
+        if (info == null) {
+            return true;
+        }
+
+        int port = (Integer) value(info, "port");
+
+        if (port < 1 || port > 65535) {
+            return error(page, info, "The port " + port + " is not a valid port number.");
+        }
+        return true;
+    }
+
+    private boolean validateField(VariableElement field, AnnotationMirror isLoaded, AnnotationMirror loader) {
+        TypeElement selector = elements.getTypeElement(SELECTOR);
+
+        if (selector != null && !types.isAssignable(field.asType(), selector.asType())) {
+            return error(field, isLoaded != null ? isLoaded : loader,
+                    "Load criteria can only be declared on Selector fields.");
+        }
+
+        if (isLoaded != null && loader != null) {
+            return error(field, loader, "A field can't be both a loader and an ordinary load criterion.  "
+                    + "The @Loader annotation would be ignored.");
+        }
+
+        if (loader != null) {
+            String present = ternary(loader, "presentOnFinish");
+            String visible = ternary(loader, "visibleOnFinish");
+
+            if (present.equals("FALSE") && visible.equals("TRUE")) {
+                return error(field, loader, "A loader can't be visible without being present.");
+            }
+            if (present.equals("UNKNOWN") && visible.equals("UNKNOWN")) {
+                messager.printMessage(Diagnostic.Kind.WARNING,
+                        "This loader declares no expectations and will never be checked.", field, loader);
+            }
+            return true;
+        }
+
+        String presence = ternary(isLoaded, "presence");
+        String visibility = ternary(isLoaded, "visibility");
+        String containsText = (String) value(isLoaded, "containsText");
+        String id = (String) value(isLoaded, "hasId");
+        List<String> cssClasses = strings(isLoaded, "containsCssClasses");
+        int findAtLeast = (Integer) value(isLoaded, "findAtLeast");
+        int findAtMost = (Integer) value(isLoaded, "findAtMost");
+        int findExactly = (Integer) value(isLoaded, "findExactly");
+        boolean valid = true;
+
+        for (String count : new String[] {"findAtLeast", "findAtMost", "findExactly"}) {
+            if ((Integer) value(isLoaded, count) < -1) {
+                valid = error(field, isLoaded, count + " can't be negative.  Use -1 or omit it to skip the check.");
+            }
+        }
+
+        if (findExactly >= 0 && (findAtLeast >= 0 || findAtMost >= 0)) {
+            valid = error(field, isLoaded, "findExactly can't be combined with findAtLeast or findAtMost.  "
+                    + "They would be ignored.");
+        }
+
+        if (findAtLeast >= 0 && findAtMost >= 0 && findAtLeast > findAtMost) {
+            valid = error(field, isLoaded, "findAtLeast (" + findAtLeast + ") is greater than findAtMost ("
+                    + findAtMost + ") so the page could never load.");
+        }
+
+        if (presence.equals("FALSE")) {
+            boolean expectsElement = visibility.equals("TRUE")
+                    || !containsText.isEmpty()
+                    || !id.isEmpty()
+                    || !(cssClasses.isEmpty() || cssClasses.size() == 1 && cssClasses.get(0).isEmpty())
+                    || findAtLeast > 0
+                    || findExactly > 0;
+
+            if (expectsElement) {
+                valid = error(field, isLoaded, "The element is expected to be absent but other criteria expect "
+                        + "it to be present, so the page could never load.");
+            }
+        }
+        return valid;
+    }
+
+    private boolean validateFailsIf(VariableElement field, AnnotationMirror failsIf) {
+        TypeElement selector = elements.getTypeElement(SELECTOR);
+
+        if (selector != null && !types.isAssignable(field.asType(), selector.asType())) {
+            return error(field, failsIf, "Load criteria can only be declared on Selector fields.");
+        }
+
+        String presence = ternary(failsIf, "presence");
+        String visibility = ternary(failsIf, "visibility");
+        String containsText = (String) value(failsIf, "containsText");
+
+        if (presence.equals("FALSE") && (visibility.equals("TRUE") || !containsText.isEmpty())) {
+            return error(field, failsIf, "The element is expected to be absent but other criteria expect it to be "
+                    + "present, so the page could never fail.");
+        }
+        if (presence.equals("UNKNOWN") && visibility.equals("UNKNOWN") && containsText.isEmpty()) {
+            return error(field, failsIf, "This failure criterion declares no expectations, so the page would "
+                    + "always fail.");
+        }
+        return true;
+    }
+
+    private boolean error(Element element, AnnotationMirror annotation, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element, annotation);
+        return false;
+    }
+
+    /**
+     * A companion can only reference classes that are visible from their own package.
+     */
+    private boolean isAccessible(TypeElement page) {
+        Element current = page;
+
+        while (current instanceof TypeElement) {
+            TypeElement type = (TypeElement) current;
+
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+                    || type.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            current = type.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /*/*****************
+     * Generation      *
+     *******************/
+
+    private String isLoadedField(TypeElement page, VariableElement field, AnnotationMirror isLoaded) {
+        StringBuilder cssClasses = new StringBuilder();
+
+        for (String cssClass : strings(isLoaded, "containsCssClasses")) {
+            cssClasses.append(cssClasses.length() == 0 ? "" : ", ").append(literal(cssClass));
+        }
+
+        return field(page, field, "com.jcleary.webdriver.LoadCriterion.isLoaded("
+                + TERNARY + "." + ternary(isLoaded, "presence") + ", "
+                + TERNARY + "." + ternary(isLoaded, "visibility") + ", "
+                + literal((String) value(isLoaded, "containsText")) + ", "
+                + "new String[] {" + cssClasses + "}, "
+                + literal((String) value(isLoaded, "hasId")) + ", "
+                + value(isLoaded, "findAtLeast") + ", "
+                + value(isLoaded, "findAtMost") + ", "
+                + value(isLoaded, "findExactly") + ", "
+                + value(isLoaded, "mayRegress") + ")");
+    }
+
+    private String loaderField(TypeElement page, VariableElement field, AnnotationMirror loader) {
+        return field(page, field, "com.jcleary.webdriver.LoadCriterion.loader("
+                + TERNARY + "." + ternary(loader, "presentOnFinish") + ", "
+                + TERNARY + "." + ternary(loader, "visibleOnFinish") + ")");
+    }
+
+    private String failsIfField(TypeElement page, VariableElement field, AnnotationMirror failsIf) {
+        return field(page, field, "com.jcleary.webdriver.LoadCriterion.failsIf("
+                + TERNARY + "." + ternary(failsIf, "presence") + ", "
+                + TERNARY + "." + ternary(failsIf, "visibility") + ", "
+                + literal((String) value(failsIf, "containsText")) + ", "
+                + literal((String) value(failsIf, "reason")) + ")");
+    }
+
+    private String field(TypeElement page, VariableElement field, String criterion) {
+        String rawType = types.erasure(page.asType()).toString();
+        String access = field.getModifiers().contains(Modifier.STATIC)
+                ? rawType + "." + field.getSimpleName()
+                : "((" + rawType + ") page)." + field.getSimpleName();
+
+        return "            new com.jcleary.webdriver.GeneratedPagePlan.Field(\n"
+                + "                    " + literal(field.getSimpleName().toString()) + ",\n"
+                + "                    page -> " + access + ",\n"
+                + "                    " + criterion + ")";
+    }
+
+    private void write(TypeElement page, List<String> fields) {
+        String packageName = elements.getPackageOf(page).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(page).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String hostTemplate = hostTemplate(page);
+
+        StringBuilder source = new StringBuilder();
+
+        source.append("// Generated by ").append(PageProcessor.class.getName()).append(", do not edit.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n");
+        }
+        source.append("\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements com.jcleary.webdriver.GeneratedPagePlan {\n\n")
+                .append("    private static final java.util.List<com.jcleary.webdriver.GeneratedPagePlan.Field> ")
+                .append("FIELDS =\n")
+                .append("            java.util.Collections.unmodifiableList(java.util.Arrays.asList(\n")
+                .append(String.join(",\n", fields)).append(fields.isEmpty() ? "" : "\n")
+                .append("            ));\n\n")
+                .append("    @Override\n")
+                .append("    public String hostTemplate() {\n")
+                .append("        return ").append(hostTemplate == null ? "null" : literal(hostTemplate)).append(";\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public String relativePath() {\n")
+                .append("        return ").append(literal(relativePath(page))).append(";\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.List<com.jcleary.webdriver.GeneratedPagePlan.Field> declaredFields() {\n")
+                .append("        return FIELDS;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, page);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not generate " + qualifiedName + ": " + e, page);
+        }
+    }
+
+    /**
+     * Mirrors {@code Page#getHostname()}: the host and port of the closest class declaring a host.
+     */
+    private String hostTemplate(TypeElement page) {
+        for (TypeElement current = page; current != null; current = superclass(current)) {
+            AnnotationMirror info = mirror(current, PAGE_INFO);
+
+            if (info != null && !((String) value(info, "host")).isEmpty()) {
+                int port = (Integer) value(info, "port");
+                return value(info, "host") + (port == 80 ? "" : ":" + port);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors {@code Page#getRelativePath()}: the relative paths of every page class, outermost first.
+     */
+    private String relativePath(TypeElement page) {
+        TypeElement pageType = elements.getTypeElement(PAGE);
+        StringBuilder relativePath = new StringBuilder();
+
+        for (TypeElement current = page; current != null; current = superclass(current)) {
+            if (pageType == null || !types.isSubtype(types.erasure(current.asType()), pageType.asType())) {
+                break;
+            }
+            AnnotationMirror info = mirror(current, PAGE_INFO);
+
+            if (info != null) {
+                relativePath.insert(0, (String) value(info, "relativePath"));
+            }
+        }
+        return relativePath.toString();
+    }
+
+    /*/*****************
+     * Helpers         *
+     *******************/
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    private AnnotationMirror mirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                elements.getElementValuesWithDefaults(mirror);
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException(mirror + " has no attribute named " + name);
+    }
+
+    private String ternary(AnnotationMirror mirror, String name) {
+        return ((VariableElement) value(mirror, name)).getSimpleName().toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> strings(AnnotationMirror mirror, String name) {
+        List<String> strings = new ArrayList<>();
+
+        for (AnnotationValue value : (List<? extends AnnotationValue>) value(mirror, name)) {
+            strings.add((String) value.getValue());
+        }
+        return strings;
+    }
+
+    private String literal(String value) {
+        return elements.getConstantExpression(value);
+    }
+}
@@ -0,0 +1,93 @@
+package com.jcleary.webdriver.wait;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learns how long each key usually takes to be satisfied and concentrates attempts around that time.
+ *
+ * Before the expected time the strategy sleeps until the expected window opens, within the window it polls every
+ * {@link #minMillis}, and once the window has passed it backs off towards {@link #maxMillis}.  Keys without any
+ * history back off exponentially from {@link #minMillis}.
+ */
+public class AdaptiveWaitStrategy implements WaitStrategy {
+
+    /**
+     * Weight of the newest observation in the moving averages.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final BackoffWaitStrategy fallback;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public AdaptiveWaitStrategy(long minMillis, long maxMillis) {
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.fallback = new BackoffWaitStrategy(minMillis, maxMillis, 2.0);
+    }
+
+    @Override
+    public long nextDelay(String key, int attempt, long elapsedMillis) {
+        Statistics stats = statistics.get(key);
+
+        if (stats == null) {
+            return fallback.nextDelay(key, attempt, elapsedMillis);
+        }
+
+        double expected = stats.mean;
+        double window = Math.max(stats.deviation, minMillis);
+
+        if (elapsedMillis < expected - window) {
+            return clamp((long) (expected - window) - elapsedMillis);
+        }
+        if (elapsedMillis <= expected + 2 * window) {
+            return minMillis;
+        }
+        return clamp((long) ((elapsedMillis - expected) / 4));
+    }
+
+    @Override
+    public void satisfied(String key, long elapsedMillis) {
+        statistics.compute(key, (k, stats) -> stats == null
+                ? new Statistics(elapsedMillis, 0)
+                : stats.update(elapsedMillis));
+    }
+
+    /**
+     * @param key                           Identifies a wait
+     *
+     * @return                              The learned number of milliseconds the wait usually takes, or -1 if
+     *                                      there is no history
+     */
+    public long getExpectedMillis(String key) {
+        Statistics stats = statistics.get(key);
+        return stats == null ? -1 : (long) stats.mean;
+    }
+
+    private long clamp(long delay) {
+        return Math.max(minMillis, Math.min(delay, maxMillis));
+    }
+
+    /**
+     * Exponentially weighted moving average and mean absolute deviation of the time to be satisfied.
+     */
+    private static final class Statistics {
+
+        final double mean;
+        final double deviation;
+
+        Statistics(double mean, double deviation) {
+            this.mean = mean;
+            this.deviation = deviation;
+        }
+
+        Statistics update(long elapsedMillis) {
+            double error = elapsedMillis - mean;
+            return new Statistics(
+                    mean + SMOOTHING * error,
+                    deviation + SMOOTHING * (Math.abs(error) - deviation));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jcleary.webdriver.wait;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multiplies the delay after each attempt up to an upper bound.  Half of each delay is randomized so that many
+ * threads waiting on the same condition don't poll in lock step.
+ */
+public class BackoffWaitStrategy implements WaitStrategy {
+
+    private final long initialMillis;
+    private final long maxMillis;
+    private final double multiplier;
+
+    public BackoffWaitStrategy(long initialMillis, long maxMillis, double multiplier) {
+        if (initialMillis < 1 || maxMillis < initialMillis || multiplier < 1.0) {
+            throw new IllegalArgumentException("Invalid backoff: initial " + initialMillis + "ms, max "
+                    + maxMillis + "ms, multiplier " + multiplier);
+        }
+        this.initialMillis = initialMillis;
+        this.maxMillis = maxMillis;
+        this.multiplier = multiplier;
+    }
+
+    @Override
+    public long nextDelay(String key, int attempt, long elapsedMillis) {
+        return jitter(delayOf(attempt));
+    }
+
+    /**
+     * @return                              The delay before jitter is applied
+     */
+    long delayOf(int attempt) {
+        double delay = initialMillis * Math.pow(multiplier, Math.max(0, attempt - 1));
+        return (long) Math.min(delay, maxMillis);
+    }
+
+    static long jitter(long delay) {
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
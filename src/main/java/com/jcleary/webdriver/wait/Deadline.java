@@ -0,0 +1,121 @@
+package com.jcleary.webdriver.wait;
+
+import org.openqa.selenium.TimeoutException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time budget shared by every wait on the current thread, such as one time-boxed monitoring check or test step.
+ * While a deadline is open, each wait's own timeout is clamped to the time remaining, so nested waits can't add up
+ * to more than the budget, and a wait started after the budget is spent fails at once instead of waiting.
+ *
+ * Opening a deadline while one is already open can only shorten it, the earlier of the two is kept until the inner
+ * one is closed.
+ *
+ * <pre>
+ *     try (Deadline deadline = Deadline.within(60000L)) {
+ *         ...
+ *     }
+ * </pre>
+ */
+public final class Deadline implements AutoCloseable {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final Deadline outer;
+    private final long budgetMillis;
+    private final long endNanos;
+
+    private Deadline(Deadline outer, long budgetMillis, long endNanos) {
+        this.outer = outer;
+        this.budgetMillis = budgetMillis;
+        this.endNanos = endNanos;
+    }
+
+    /**
+     * Open a deadline on the current thread.
+     *
+     * @param budgetMillis                  The number of milliseconds every wait until it's closed may take in total
+     *
+     * @return                              The open deadline, which must be closed
+     */
+    public static Deadline within(long budgetMillis) {
+        Deadline outer = CURRENT.get();
+        long endNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, budgetMillis));
+
+        if (outer != null && outer.endNanos - endNanos < 0) {
+            endNanos = outer.endNanos;
+            budgetMillis = outer.budgetMillis;
+        }
+
+        Deadline deadline = new Deadline(outer, budgetMillis, endNanos);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * @return                              The deadline open on the current thread, or null if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return                              The number of milliseconds left in the budget of the current thread, or
+     *                                      Long.MAX_VALUE if no deadline is open
+     */
+    public static long remainingMillis() {
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? Long.MAX_VALUE : deadline.remaining();
+    }
+
+    /**
+     * Limit a wait's timeout to the budget of the current thread.
+     *
+     * @param timeoutMillis                 The timeout the wait would use on its own
+     *
+     * @return                              The smaller of the timeout and the time remaining
+     *
+     * @exception TimeoutException          If the budget of the current thread is already spent
+     */
+    public static long clamp(long timeoutMillis) {
+        Deadline deadline = CURRENT.get();
+
+        if (deadline == null) {
+            return timeoutMillis;
+        }
+
+        long remaining = deadline.remaining();
+
+        if (remaining <= 0) {
+            throw new TimeoutException("The deadline of " + deadline.budgetMillis + " milliseconds has passed.");
+        }
+        return Math.min(timeoutMillis, remaining);
+    }
+
+    /**
+     * @return                              The number of milliseconds left until this deadline, negative once it
+     *                                      has passed
+     */
+    public long remaining() {
+        return TimeUnit.NANOSECONDS.toMillis(endNanos - System.nanoTime());
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Restore the deadline that was open before this one, if any.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+}
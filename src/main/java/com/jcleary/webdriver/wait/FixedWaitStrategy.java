@@ -0,0 +1,25 @@
+package com.jcleary.webdriver.wait;
+
+/**
+ * Sleeps the same number of milliseconds between every attempt.
+ */
+public class FixedWaitStrategy implements WaitStrategy {
+
+    private final long intervalMillis;
+
+    public FixedWaitStrategy(long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("The interval can't be negative: " + intervalMillis);
+        }
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public long nextDelay(String key, int attempt, long elapsedMillis) {
+        return intervalMillis;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+}
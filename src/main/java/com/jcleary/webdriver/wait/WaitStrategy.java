@@ -0,0 +1,67 @@
+package com.jcleary.webdriver.wait;
+
+/**
+ * Decides how long to sleep between attempts while waiting for a condition.  Strategies are shared between many
+ * waits, so implementations must be thread safe.
+ *
+ * Each wait is identified by a key, such as a Selector's locator or a page's class name, which lets a strategy
+ * learn how long particular waits usually take.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Shared by pages and loadables that don't declare their own strategy, so that what it learns about each page
+     * class carries over between instances.
+     */
+    WaitStrategy DEFAULT = adaptive(50, 500);
+
+    /**
+     * Get the number of milliseconds to sleep before the next attempt.
+     *
+     * @param key                           Identifies what is being waited for
+     * @param attempt                       The number of attempts made so far, starting at 1
+     * @param elapsedMillis                 The number of milliseconds since the wait started
+     *
+     * @return                              The number of milliseconds to sleep
+     */
+    long nextDelay(String key, int attempt, long elapsedMillis);
+
+    /**
+     * Notifies this strategy that a wait was satisfied.
+     *
+     * @param key                           Identifies what was waited for
+     * @param elapsedMillis                 The number of milliseconds it took for the condition to be satisfied
+     */
+    default void satisfied(String key, long elapsedMillis) {
+    }
+
+    /**
+     * @param intervalMillis                The number of milliseconds between attempts
+     *
+     * @return                              A strategy that always sleeps the same amount of time
+     */
+    static WaitStrategy fixed(long intervalMillis) {
+        return new FixedWaitStrategy(intervalMillis);
+    }
+
+    /**
+     * @param initialMillis                 The delay after the first attempt
+     * @param maxMillis                     The upper bound of the delay
+     *
+     * @return                              A strategy that doubles the delay after each attempt, with random jitter
+     */
+    static WaitStrategy backoff(long initialMillis, long maxMillis) {
+        return new BackoffWaitStrategy(initialMillis, maxMillis, 2.0);
+    }
+
+    /**
+     * @param minMillis                     The delay used while the condition is expected to become satisfied
+     * @param maxMillis                     The upper bound of the delay
+     *
+     * @return                              A strategy that learns how long each key usually takes and polls densely
+     *                                      around that time
+     */
+    static WaitStrategy adaptive(long minMillis, long maxMillis) {
+        return new AdaptiveWaitStrategy(minMillis, maxMillis);
+    }
+}
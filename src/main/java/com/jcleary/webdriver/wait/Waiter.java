@@ -0,0 +1,148 @@
+package com.jcleary.webdriver.wait;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The polling loop shared by every wait.  Attempts are repeated until one produces a value or the timeout passes,
+ * and the {@link WaitStrategy} decides how long to sleep in between.  The timeout is clamped to the {@link Deadline}
+ * open on the current thread, if any.
+ */
+public class Waiter {
+
+    private final WaitStrategy strategy;
+    private final Clock clock;
+    private final Sleeper sleeper;
+
+    public Waiter(WaitStrategy strategy) {
+        this(strategy, new SystemClock(), Sleeper.SYSTEM_SLEEPER);
+    }
+
+    public Waiter(WaitStrategy strategy, Clock clock, Sleeper sleeper) {
+        this.strategy = strategy;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Repeat an attempt until it returns a non-null value or the timeout passes.
+     *
+     * @param key                           Identifies what is being waited for
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     * @param attempt                       Returns the awaited value, or null if it should be attempted again
+     *
+     * @return                              The outcome of the wait
+     */
+    public <T> Outcome<T> until(String key, long timeoutMillis, Supplier<T> attempt) {
+        return until(key, timeoutMillis, attempt, null);
+    }
+
+    /**
+     * Repeat an attempt until it returns a non-null value or the timeout passes.
+     *
+     * @param key                           Identifies what is being waited for
+     * @param timeoutMillis                 The maximum number of milliseconds to wait
+     * @param attempt                       Returns the awaited value, or null if it should be attempted again
+     * @param ignoring                      Exceptions of this type are treated as an unsuccessful attempt, and the
+     *                                      last one is kept in the outcome.  May be null
+     *
+     * @return                              The outcome of the wait
+     *
+     * @exception TimeoutException          If the deadline of the current thread has already passed
+     */
+    public <T> Outcome<T> until(String key, long timeoutMillis, Supplier<T> attempt,
+                                Class<? extends RuntimeException> ignoring) {
+        long start = clock.now();
+        long end = clock.laterBy(Deadline.clamp(timeoutMillis));
+        RuntimeException lastIgnored = null;
+        int attempts = 0;
+
+        while (clock.isNowBefore(end)) {
+            attempts++;
+            try {
+                T value = attempt.get();
+
+                if (value != null) {
+                    long elapsed = clock.now() - start;
+                    strategy.satisfied(key, elapsed);
+                    return new Outcome<>(value, null, attempts, elapsed);
+                }
+            } catch (RuntimeException e) {
+                if (ignoring == null || !ignoring.isInstance(e)) {
+                    throw e;
+                }
+                lastIgnored = e;
+            }
+
+            long remaining = end - clock.now();
+            long delay = Math.min(strategy.nextDelay(key, attempts, clock.now() - start), remaining);
+
+            if (delay > 0) {
+                try {
+                    sleeper.sleep(new Duration(delay, TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return new Outcome<>(null, lastIgnored, attempts, clock.now() - start);
+    }
+
+    public WaitStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * The result of a single wait.
+     */
+    public static final class Outcome<T> {
+
+        private final T value;
+        private final RuntimeException lastIgnored;
+        private final int attempts;
+        private final long elapsedMillis;
+
+        private Outcome(T value, RuntimeException lastIgnored, int attempts, long elapsedMillis) {
+            this.value = value;
+            this.lastIgnored = lastIgnored;
+            this.attempts = attempts;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * @return                          True if an attempt produced a value before the timeout
+         */
+        public boolean isSatisfied() {
+            return value != null;
+        }
+
+        /**
+         * @return                          The value produced by the successful attempt, or null on timeout
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return                          The last ignored exception, or null if there was none
+         */
+        public RuntimeException getLastIgnored() {
+            return lastIgnored;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.testng.annotations.*;
 
+import java.util.Collections;
+
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.*;
 
@@ -26,6 +28,7 @@ public class SelectorUtilsTest {
 
         when(mockState.getDriver()).thenReturn(mockDriver);
         when(mockDriver.findElement(By.cssSelector(".abc"))).thenReturn(mockElement);
+        when(mockDriver.findElements(By.cssSelector(".abc"))).thenReturn(Collections.singletonList(mockElement));
         when(mockElement.getText()).thenReturn("test");
 
         Selector selector = new Selector(mockState, ".abc", ByFactory.CSS);
@@ -0,0 +1,99 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxProfile;
+import org.openqa.selenium.phantomjs.PhantomJSDriverService;
+import org.openqa.selenium.remote.CapabilityType;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class BrowserProfileTest {
+
+    @Test
+    public void defaultProfileChangesNothingTest() {
+        DesiredCapabilities capabilities = BrowserProfile.DEFAULT.toCapabilities(Browser.PHANTOM);
+
+        assertNull(capabilities.getCapability(CapabilityType.PAGE_LOAD_STRATEGY));
+        assertEquals(((String[]) capabilities.getCapability(PhantomJSDriverService.PHANTOMJS_CLI_ARGS)).length, 0);
+    }
+
+    @Test
+    public void namedProfilesTest() {
+        assertSame(BrowserProfile.named("Fast"), BrowserProfile.FAST);
+        assertSame(BrowserProfile.named("headless"), BrowserProfile.HEADLESS);
+        assertTrue(BrowserProfile.FAST.isHeadless());
+        assertTrue(BrowserProfile.FAST.isBlockImages());
+        assertEquals(BrowserProfile.FAST.getPageLoadStrategy(), BrowserProfile.PageLoadStrategy.EAGER);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unknownProfileTest() {
+        BrowserProfile.named("turbo");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void chromeOptionsTest() throws IOException {
+        BrowserProfile profile = BrowserProfile.FAST
+                .withBlockedHosts("*.doubleclick.net", "ads.example.com")
+                .withDiskCache("/tmp/cache/{browser}");
+
+        DesiredCapabilities capabilities = profile.toCapabilities(Browser.CHROME);
+        ChromeOptions options = (ChromeOptions) capabilities.getCapability(ChromeOptions.CAPABILITY);
+        String json = options.toJson().toString();
+
+        assertEquals(capabilities.getCapability(CapabilityType.PAGE_LOAD_STRATEGY), "eager");
+        assertTrue(json.contains("--headless"));
+        assertTrue(json.contains("--disk-cache-dir=/tmp/cache/chrome"));
+        assertTrue(json.contains("MAP *.doubleclick.net ~NOTFOUND, MAP ads.example.com ~NOTFOUND"));
+        assertEquals(((Map<String, Object>) options.getExperimentalOption("prefs"))
+                .get("profile.managed_default_content_settings.images"), 2);
+    }
+
+    @Test
+    public void firefoxProfileTest() {
+        BrowserProfile profile = BrowserProfile.DEFAULT
+                .withBlockedImages()
+                .withBlockedFonts()
+                .withBlockedHosts("*.tracker.net")
+                .withDiskCache("/tmp/cache/{browser}");
+
+        FirefoxProfile firefox = (FirefoxProfile) profile.toCapabilities(Browser.FIREFOX)
+                .getCapability(FirefoxDriver.PROFILE);
+
+        assertEquals(firefox.getIntegerPreference("permissions.default.image", 1), 2);
+        assertEquals(firefox.getIntegerPreference("browser.display.use_document_fonts", 1), 0);
+        assertEquals(firefox.getIntegerPreference("network.proxy.type", 0), 2);
+        assertEquals(firefox.getStringPreference("browser.cache.disk.parent_directory", null), "/tmp/cache/firefox");
+        assertTrue(firefox.getStringPreference("network.proxy.autoconfig_url", "")
+                .contains("shExpMatch(host, '*.tracker.net')"));
+    }
+
+    @Test
+    public void phantomArgumentsTest() {
+        BrowserProfile profile = BrowserProfile.DEFAULT.withBlockedImages().withDiskCache("/tmp/{browser}");
+
+        String[] arguments = (String[]) profile.toCapabilities(Browser.PHANTOM)
+                .getCapability(PhantomJSDriverService.PHANTOMJS_CLI_ARGS);
+
+        assertEquals(Arrays.asList(arguments),
+                Arrays.asList("--load-images=false", "--disk-cache=true", "--disk-cache-path=/tmp/phantom"));
+    }
+
+    @Test
+    public void profilesAreImmutableTest() {
+        BrowserProfile blocking = BrowserProfile.DEFAULT.withBlockedHosts("a.com");
+        BrowserProfile more = blocking.withBlockedHosts("b.com");
+
+        assertEquals(blocking.getBlockedHosts(), Arrays.asList("a.com"));
+        assertEquals(more.getBlockedHosts(), Arrays.asList("a.com", "b.com"));
+        assertTrue(BrowserProfile.DEFAULT.getBlockedHosts().isEmpty());
+    }
+}
@@ -0,0 +1,62 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.service.DriverService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+public class DriverServicesTest {
+
+    @AfterMethod
+    public void teardown() {
+        DriverServices.stopAll();
+    }
+
+    @Test
+    public void serviceIsStartedOnceAndSharedTest() throws IOException {
+        AtomicInteger created = new AtomicInteger();
+        DriverService service = mock(DriverService.class);
+        DriverServices.use(Browser.CHROME, () -> {
+            created.incrementAndGet();
+            when(service.isRunning()).thenReturn(true);
+            return service;
+        });
+
+        assertSame(DriverServices.service(Browser.CHROME), service);
+        assertSame(DriverServices.service(Browser.CHROME), service);
+
+        assertEquals(created.get(), 1);
+        verify(service, times(1)).start();
+    }
+
+    @Test
+    public void stoppedServiceIsStartedAgainTest() throws IOException {
+        DriverService first = mock(DriverService.class);
+        DriverService second = mock(DriverService.class);
+        when(first.isRunning()).thenReturn(true);
+        DriverServices.use(Browser.PHANTOM, () -> first);
+        DriverServices.service(Browser.PHANTOM);
+
+        DriverServices.stopAll();
+        DriverServices.use(Browser.PHANTOM, () -> second);
+
+        verify(first).stop();
+        assertSame(DriverServices.service(Browser.PHANTOM), second);
+        verify(second).start();
+    }
+
+    @Test(expectedExceptions = WebDriverException.class)
+    public void serviceThatCannotStartFailsTest() throws IOException {
+        DriverService service = mock(DriverService.class);
+        doThrow(new IOException("no chromedriver")).when(service).start();
+        DriverServices.use(Browser.CHROME, () -> service);
+
+        DriverServices.service(Browser.CHROME);
+    }
+}
@@ -0,0 +1,142 @@
+package com.jcleary.core;
+
+import com.google.common.collect.ImmutableSet;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+public class StatePoolTest {
+
+    private List<WebDriver> started;
+    private StatePool pool;
+
+    @BeforeMethod
+    public void setup() {
+        started = new ArrayList<>();
+        pool = new StatePool(() -> {
+            WebDriver driver = mock(ChromeDriver.class, RETURNS_DEEP_STUBS);
+            when(driver.getWindowHandles()).thenReturn(ImmutableSet.of("main"));
+            synchronized (started) {
+                started.add(driver);
+            }
+            return driver;
+        });
+    }
+
+    @Test
+    public void closedLeaseReusesBrowserTest() {
+        State first = pool.lease();
+        WebDriver driver = first.getDriver();
+        first.close();
+
+        verify(driver, never()).quit();
+        verify(driver).get("about:blank");
+        verify(driver.manage()).deleteAllCookies();
+        verify(driver.manage().timeouts()).implicitlyWait(0, TimeUnit.MILLISECONDS);
+        verify(driver.manage().timeouts()).setScriptTimeout(0, TimeUnit.MILLISECONDS);
+        assertEquals(pool.idleCount(), 1);
+
+        State second = pool.lease();
+        assertSame(second.getDriver(), driver);
+        assertNotSame(second, first);
+        assertEquals(started.size(), 1);
+    }
+
+    @Test
+    public void extraWindowsAreClosedOnResetTest() {
+        StatePool.Lease lease = pool.lease();
+        WebDriver driver = lease.getDriver();
+        when(driver.getWindowHandles()).thenReturn(ImmutableSet.of("main", "popup"));
+
+        lease.close();
+
+        verify(driver.switchTo()).window("popup");
+        verify(driver, times(1)).close();
+        verify(driver.switchTo()).window("main");
+    }
+
+    @Test
+    public void browserIsRecycledAfterMaxUsesTest() {
+        pool.withMaxUses(2);
+
+        StatePool.Lease first = pool.lease();
+        first.close();
+        StatePool.Lease second = pool.lease();
+        assertEquals(second.getUses(), 2);
+        second.close();
+
+        verify(started.get(0)).quit();
+        assertEquals(pool.idleCount(), 0);
+
+        pool.lease();
+        assertEquals(started.size(), 2);
+    }
+
+    @Test
+    public void failedLeaseQuitsBrowserTest() {
+        StatePool.Lease lease = pool.lease();
+        lease.fail();
+        lease.close();
+
+        verify(lease.getDriver()).quit();
+        assertEquals(pool.idleCount(), 0);
+        assertEquals(pool.leasedCount(), 0);
+    }
+
+    @Test
+    public void browserThatCannotBeResetIsQuitTest() {
+        StatePool.Lease lease = pool.lease();
+        doThrow(new RuntimeException("gone")).when(lease.getDriver()).get(anyString());
+
+        lease.close();
+
+        verify(lease.getDriver()).quit();
+        assertEquals(pool.idleCount(), 0);
+    }
+
+    @Test
+    public void closingTwiceReleasesOnceTest() {
+        StatePool.Lease lease = pool.lease();
+        lease.close();
+        lease.close();
+
+        assertEquals(pool.idleCount(), 1);
+    }
+
+    @Test
+    public void prewarmStartsSessionsInBackgroundTest() throws InterruptedException {
+        pool.prewarm(2);
+
+        State first = pool.lease();
+        State second = pool.lease();
+
+        assertEquals(started.size(), 2);
+        assertNotSame(first.getDriver(), second.getDriver());
+    }
+
+    @Test
+    public void closingPoolQuitsIdleBrowsersTest() {
+        State lease = pool.lease();
+        WebDriver driver = lease.getDriver();
+        lease.close();
+
+        pool.close();
+
+        verify(driver).quit();
+        try {
+            pool.lease();
+            fail("A closed pool should not lease.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.jcleary.core;
 
+import org.mockito.InOrder;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.*;
 
@@ -30,4 +35,184 @@ public class StateTest {
 
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void nestedImplicitWaitSuspensionsAreCoalescedTest() {
+        WebDriver mockDriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        WebDriver.Timeouts timeouts = mockDriver.manage().timeouts();
+        State state = new State(mockDriver);
+
+        state.setImplicitWait(5, TimeUnit.SECONDS);
+        state.suspendImplicitWait();
+        state.suspendImplicitWait();
+        state.resumeImplicitWait();
+        state.resumeImplicitWait();
+
+        InOrder order = inOrder(timeouts);
+        order.verify(timeouts).implicitlyWait(5000L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).implicitlyWait(0L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).implicitlyWait(5000L, TimeUnit.MILLISECONDS);
+        verify(timeouts, times(1)).implicitlyWait(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void noImplicitWaitNothingSentTest() {
+        WebDriver mockDriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        WebDriver.Timeouts timeouts = mockDriver.manage().timeouts();
+        State state = new State(mockDriver);
+
+        state.suspendImplicitWait();
+        state.resumeImplicitWait();
+
+        verify(timeouts, never()).implicitlyWait(anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void implicitWaitSetWhileSuspendedAppliesOnResumeTest() {
+        WebDriver mockDriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        WebDriver.Timeouts timeouts = mockDriver.manage().timeouts();
+        State state = new State(mockDriver);
+
+        state.suspendImplicitWait();
+        state.setImplicitWait(2, TimeUnit.SECONDS);
+        state.resumeImplicitWait();
+
+        assertEquals(state.getImplicitWaitMillis(), 2000L);
+        verify(timeouts, times(1)).implicitlyWait(2000L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void scriptTimeoutOverridesAreRestoredTest() {
+        WebDriver mockDriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        WebDriver.Timeouts timeouts = mockDriver.manage().timeouts();
+        State state = new State(mockDriver);
+
+        state.setScriptTimeout(3, TimeUnit.SECONDS);
+        state.overrideScriptTimeout(10000L);
+        state.overrideScriptTimeout(20000L);
+        state.restoreScriptTimeout();
+        state.restoreScriptTimeout();
+
+        InOrder order = inOrder(timeouts);
+        order.verify(timeouts).setScriptTimeout(3000L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).setScriptTimeout(10000L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).setScriptTimeout(20000L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).setScriptTimeout(10000L, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).setScriptTimeout(3000L, TimeUnit.MILLISECONDS);
+        assertEquals(state.getScriptTimeoutMillis(), 3000L);
+    }
+
+    @Test
+    public void confinedStateRejectsOtherThreadsTest() throws InterruptedException {
+        State state = new State(mock(WebDriver.class));
+        state.confineTo(Thread.currentThread());
+        RuntimeException[] thrown = new RuntimeException[1];
+
+        Thread other = new Thread(() -> {
+            try {
+                state.getDriver();
+            } catch (RuntimeException e) {
+                thrown[0] = e;
+            }
+        });
+        other.start();
+        other.join();
+
+        assertTrue(thrown[0] instanceof IllegalStateException);
+        assertNotNull(state.getDriver());
+    }
+
+    @Test
+    public void borrowedStateAllowsOtherThreadTest() throws InterruptedException {
+        WebDriver mockDriver = mock(WebDriver.class);
+        State state = new State(mockDriver);
+        state.confineTo(Thread.currentThread());
+        WebDriver[] borrowed = new WebDriver[1];
+
+        Thread other = new Thread(() -> borrowed[0] = state.borrow(state::getDriver));
+        other.start();
+        other.join();
+
+        assertSame(borrowed[0], mockDriver);
+    }
+
+    @Test
+    public void lazyStateStartsOnFirstUseTest() {
+        WebDriver mockDriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        AtomicInteger starts = new AtomicInteger();
+        State state = State.lazy(() -> {
+            starts.incrementAndGet();
+            return mockDriver;
+        });
+
+        state.store().update("user", "julian");
+        state.setImplicitWait(2, TimeUnit.SECONDS);
+        assertFalse(state.isStarted());
+        assertEquals(starts.get(), 0);
+
+        assertSame(state.getDriver(), mockDriver);
+        assertSame(state.getDriver(), mockDriver);
+        assertEquals(starts.get(), 1);
+        verify(mockDriver.manage().timeouts()).implicitlyWait(2000L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void closedLazyStateNeverStartsTest() {
+        AtomicInteger starts = new AtomicInteger();
+        State state = State.lazy(() -> {
+            starts.incrementAndGet();
+            return mock(WebDriver.class);
+        });
+
+        state.close();
+
+        assertEquals(starts.get(), 0);
+    }
+
+    @Test
+    public void asyncStateStartsInBackgroundTest() throws InterruptedException {
+        WebDriver mockDriver = mock(WebDriver.class);
+        CountDownLatch started = new CountDownLatch(1);
+        State state = State.async(() -> {
+            started.countDown();
+            return mockDriver;
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertSame(state.getDriver(), mockDriver);
+        assertTrue(state.isStarted());
+    }
+
+    @Test
+    public void asyncStartupFailureIsThrownOnUseTest() {
+        State state = State.async(() -> {
+            throw new IllegalStateException("no browser");
+        });
+
+        try {
+            state.getDriver();
+            fail("The startup failure should be thrown.");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "no browser");
+        }
+    }
+
+    @Test
+    public void closingStartingStateQuitsBrowserOnceStartedTest() throws InterruptedException {
+        WebDriver mockDriver = mock(WebDriver.class);
+        CountDownLatch release = new CountDownLatch(1);
+        State state = State.async(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return mockDriver;
+        });
+
+        state.close();
+        release.countDown();
+
+        verify(mockDriver, timeout(5000)).quit();
+    }
+}
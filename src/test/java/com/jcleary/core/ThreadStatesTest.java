@@ -0,0 +1,120 @@
+package com.jcleary.core;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.IInvokedMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+public class ThreadStatesTest {
+
+    @AfterMethod
+    public void teardown() {
+        ThreadStates.releaseAll();
+        ThreadStates.use((Supplier<State>) null);
+    }
+
+    @Test
+    public void eachThreadGetsItsOwnStateTest() throws Exception {
+        ThreadStates.use(() -> new State(mock(WebDriver.class)));
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+
+        try {
+            State mine = ThreadStates.get();
+            State theirs = threads.submit(ThreadStates::get).get(5, TimeUnit.SECONDS);
+
+            assertSame(ThreadStates.get(), mine);
+            assertNotSame(theirs, mine);
+            assertSame(mine.getOwner(), Thread.currentThread());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void releasedStateIsClosedAndReplacedTest() {
+        ThreadStates.use(() -> new State(mock(WebDriver.class)));
+
+        State first = ThreadStates.get();
+        ThreadStates.release(false);
+
+        verify(first.getDriver()).quit();
+        assertNull(first.getOwner());
+        assertNull(ThreadStates.current());
+        assertNotSame(ThreadStates.get(), first);
+    }
+
+    @Test
+    public void failedTestQuitsLeasedBrowserTest() {
+        StatePool pool = new StatePool(() -> mock(WebDriver.class, RETURNS_DEEP_STUBS));
+        ThreadStates.use(pool);
+
+        IInvokedMethod method = mock(IInvokedMethod.class);
+        ITestResult result = mock(ITestResult.class);
+        when(method.isTestMethod()).thenReturn(true);
+        when(result.getStatus()).thenReturn(ITestResult.FAILURE);
+
+        WebDriver driver = ThreadStates.get().getDriver();
+        new ThreadStateListener().afterInvocation(method, result);
+
+        verify(driver).quit();
+        assertEquals(pool.idleCount(), 0);
+        assertNull(ThreadStates.current());
+    }
+
+    @Test
+    public void replacedPoolIsClosedTest() {
+        StatePool pool = new StatePool(() -> mock(WebDriver.class, RETURNS_DEEP_STUBS));
+        ThreadStates.use(pool);
+
+        WebDriver driver = ThreadStates.get().getDriver();
+        ThreadStates.release(false);
+        assertEquals(pool.idleCount(), 1);
+
+        ThreadStates.use(() -> new State(mock(WebDriver.class)));
+
+        verify(driver).quit();
+        assertEquals(pool.idleCount(), 0);
+        assertFalse(ThreadStates.get() instanceof StatePool.Lease);
+    }
+
+    @Test
+    public void configurationMethodsKeepStateTest() {
+        ThreadStates.use(() -> new State(mock(WebDriver.class)));
+
+        IInvokedMethod method = mock(IInvokedMethod.class);
+        when(method.isTestMethod()).thenReturn(false);
+
+        State state = ThreadStates.get();
+        new ThreadStateListener().afterInvocation(method, mock(ITestResult.class));
+
+        assertSame(ThreadStates.current(), state);
+    }
+
+    @Test
+    public void suiteFinishClosesEveryStateTest() throws Exception {
+        ThreadStates.use(() -> new State(mock(WebDriver.class)));
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+
+        try {
+            State theirs = threads.submit(ThreadStates::get).get(5, TimeUnit.SECONDS);
+            State mine = ThreadStates.get();
+
+            new ThreadStateListener().onFinish(null);
+
+            verify(mine.getDriver()).quit();
+            verify(theirs.getDriver()).quit();
+            assertNull(ThreadStates.current());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
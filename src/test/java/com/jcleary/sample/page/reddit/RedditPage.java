@@ -6,9 +6,6 @@ import com.jcleary.exceptions.PageException;
 import com.jcleary.webdriver.Loadable;
 import com.jcleary.webdriver.Page;
 import com.jcleary.webdriver.Selector;
-import org.openqa.selenium.WebElement;
-
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -39,16 +36,11 @@ public class RedditPage extends Page {
      * @exception PageException If no posts are found on the page
      */
     public List<RedditPost> getPostsOnPage() {
-        List<RedditPost> posts = new ArrayList<>();
-
-        for (WebElement aRow : postRow.getMultiple()) {
-
-            String name = aRow.findElement(postTitle.getBy()).getText();
-            String karma = aRow.findElement(postKarma.getBy()).getText();
-
-            // Don't care about comments in this sample page.  See VariableSubReddit.java
-            posts.add(new RedditPost(karma, name, -2));
-        }
+        // Don't care about comments in this sample page.  See VariableSubReddit.java
+        List<RedditPost> posts = postRow.extract()
+                .text("name", postTitle)
+                .text("karma", postKarma)
+                .as(row -> new RedditPost(row.get("karma"), row.get("name"), -2));
 
         if (posts.isEmpty()) {
             throw new PageException("Could not find anything on the page!  Did it finish loading?");
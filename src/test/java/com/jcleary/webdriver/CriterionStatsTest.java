@@ -0,0 +1,111 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.jcleary.core.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.jcleary.util.Ternary.UNKNOWN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CriterionStatsTest {
+
+    static class SamplePage implements Loadable {
+
+        @Loadable.IsLoaded
+        Selector header;
+
+        @Loadable.IsLoaded(findAtLeast = 2)
+        Selector rows;
+
+        SamplePage(State state) {
+            header = new Selector(state, ".header");
+            rows = new Selector(state, ".row");
+        }
+    }
+
+    private WebDriver mockDriver;
+    private SamplePage page;
+
+    @BeforeMethod
+    public void setup() {
+        State mockState = mock(State.class);
+        mockDriver = mock(WebDriver.class);
+        WebElement element = mock(WebElement.class);
+
+        when(mockState.getDriver()).thenReturn(mockDriver);
+        when(mockDriver.findElements(By.cssSelector(".header"))).thenReturn(ImmutableList.of(element));
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element));
+
+        page = new SamplePage(mockState);
+        CriterionStats.reset();
+    }
+
+    @Test
+    public void declaredOrderUntilObservedTest() {
+        assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(0, 1));
+    }
+
+    @Test
+    public void likelyFailuresFirstTest() {
+        for (int i = 0; i < CriterionStats.MIN_SAMPLES; i++) {
+            assertThat(page.loadState(), equalTo(UNKNOWN));
+        }
+
+        assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(1, 0));
+        assertThat(page.loadState(), equalTo(UNKNOWN));
+        verify(mockDriver, times(CriterionStats.MIN_SAMPLES)).findElements(By.cssSelector(".header"));
+    }
+
+    @Test
+    public void criteriaBehindFailuresAreObservedTest() {
+        when(mockDriver.findElements(By.cssSelector(".header"))).thenReturn(ImmutableList.of());
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(mock(WebElement.class),
+                mock(WebElement.class)));
+
+        for (int i = 0; i < CriterionStats.MIN_SAMPLES; i++) {
+            page.loadState();
+        }
+        assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(1, 0));
+
+        for (int i = 0; i < CriterionStats.MIN_SAMPLES; i++) {
+            page.loadState();
+        }
+        assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(0, 1));
+        verify(mockDriver, times(CriterionStats.MIN_SAMPLES)).findElements(By.cssSelector(".row"));
+    }
+
+    @Test
+    public void persistsTest() throws IOException {
+        Path file = Files.createTempFile("criterion-stats", ".properties");
+
+        try {
+            for (int i = 0; i < CriterionStats.MIN_SAMPLES; i++) {
+                page.loadState();
+            }
+            CriterionStats.save(file);
+            CriterionStats.reset();
+
+            assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(0, 1));
+
+            CriterionStats.load(file);
+
+            assertThat(CriterionStats.order(LoadCriteria.of(page).entries()), contains(1, 0));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jcleary.webdriver;
+
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElementConditionTest {
+
+    private WebElement mockElement;
+
+    @BeforeMethod
+    public void setup() {
+        mockElement = mock(WebElement.class);
+
+        when(mockElement.getText()).thenReturn("Posted 5 hours ago");
+        when(mockElement.getAttribute("class")).thenReturn(" thing  link ");
+        when(mockElement.getAttribute("data-type")).thenReturn("link");
+        when(mockElement.isDisplayed()).thenReturn(true);
+    }
+
+    @Test
+    public void javaEvaluationTest() {
+        assertThat(ElementCondition.textContains("hours").test(mockElement), equalTo(true));
+        assertThat(ElementCondition.textEquals("hours").test(mockElement), equalTo(false));
+        assertThat(ElementCondition.textMatches("\\d+ hours").test(mockElement), equalTo(true));
+        assertThat(ElementCondition.hasClass("link").test(mockElement), equalTo(true));
+        assertThat(ElementCondition.hasClass("lin").test(mockElement), equalTo(false));
+        assertThat(ElementCondition.attributeEquals("data-type", "link").test(mockElement), equalTo(true));
+    }
+
+    @Test
+    public void combinatorsTest() {
+        ElementCondition visibleLink = ElementCondition.visible().and(ElementCondition.hasClass("link"));
+
+        assertThat(visibleLink.test(mockElement), equalTo(true));
+        assertThat(visibleLink.negate().test(mockElement), equalTo(false));
+        assertThat(ElementCondition.anyOf(ElementCondition.textEquals("x"), ElementCondition.present())
+                .test(mockElement), equalTo(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void scriptFormTest() {
+        Map<String, Object> script = ElementCondition.not(
+                ElementCondition.allOf(ElementCondition.visible(), ElementCondition.textContains("a"))).toScript();
+
+        assertThat(script.get("op"), equalTo("not"));
+
+        Map<String, Object> inner = (Map<String, Object>) script.get("condition");
+        assertThat(inner.get("op"), equalTo("and"));
+        assertThat((List<Object>) inner.get("conditions"), hasSize(2));
+    }
+}
@@ -0,0 +1,100 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.jcleary.core.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.jcleary.util.Ternary.TRUE;
+import static com.jcleary.util.Ternary.UNKNOWN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IncrementalLoadTest {
+
+    static class SamplePage implements Loadable {
+
+        @Loadable.IsLoaded
+        Selector header;
+
+        @Loadable.IsLoaded(mayRegress = true)
+        Selector banner;
+
+        @Loadable.IsLoaded(findAtLeast = 2)
+        Selector rows;
+
+        SamplePage(State state) {
+            header = new Selector(state, ".header");
+            banner = new Selector(state, ".banner");
+            rows = new Selector(state, ".row");
+        }
+    }
+
+    private WebDriver mockDriver;
+    private SamplePage page;
+    private WebElement element;
+
+    @BeforeMethod
+    public void setup() {
+        State mockState = mock(State.class);
+        mockDriver = mock(WebDriver.class);
+        element = mock(WebElement.class);
+
+        when(mockState.getDriver()).thenReturn(mockDriver);
+        when(mockDriver.findElements(By.cssSelector(".header"))).thenReturn(ImmutableList.of(element));
+        when(mockDriver.findElements(By.cssSelector(".banner"))).thenReturn(ImmutableList.of(element));
+
+        page = new SamplePage(mockState);
+    }
+
+    @Test
+    public void skipsSettledCriteriaTest() {
+        IncrementalLoad evaluation = new IncrementalLoad(page, LoadCriteria.of(page));
+
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element));
+
+        assertThat(evaluation.next().getState(), equalTo(UNKNOWN));
+        assertThat(evaluation.next().getState(), equalTo(UNKNOWN));
+        assertThat(evaluation.settledCount(), equalTo(1));
+
+        verify(mockDriver, times(1)).findElements(By.cssSelector(".header"));
+        verify(mockDriver, times(2)).findElements(By.cssSelector(".banner"));
+    }
+
+    @Test
+    public void confirmsBeforeLoadingTest() {
+        IncrementalLoad evaluation = new IncrementalLoad(page, LoadCriteria.of(page));
+
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element));
+        evaluation.next();
+
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element, element));
+
+        assertThat(evaluation.next().getState(), equalTo(TRUE));
+        verify(mockDriver, times(2)).findElements(By.cssSelector(".header"));
+    }
+
+    @Test
+    public void regressedCriteriaAreCheckedAgainTest() {
+        IncrementalLoad evaluation = new IncrementalLoad(page, LoadCriteria.of(page));
+
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element));
+        evaluation.next();
+
+        when(mockDriver.findElements(By.cssSelector(".header"))).thenReturn(ImmutableList.of());
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(element, element));
+
+        LoadReport report = evaluation.next();
+
+        assertThat(report.getState(), equalTo(UNKNOWN));
+        assertThat(report.getVerdicts().get(0).getFailure(), equalTo("presence"));
+        assertThat(evaluation.settledCount(), equalTo(1));
+    }
+}
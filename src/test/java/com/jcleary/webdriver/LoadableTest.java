@@ -0,0 +1,397 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.AdaptiveWaitStrategy;
+import org.mockito.InOrder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.jcleary.util.Ternary.FALSE;
+import static com.jcleary.util.Ternary.TRUE;
+import static com.jcleary.util.Ternary.UNKNOWN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoadableTest {
+
+    static class SamplePage implements Loadable {
+
+        @Loadable.Loader(presentOnFinish = FALSE)
+        Selector spinner;
+
+        @Loadable.IsLoaded(visibility = TRUE, findAtLeast = 2)
+        Selector rows;
+
+        Selector ignored;
+
+        SamplePage(State state) {
+            spinner = new Selector(state, ".spinner");
+            rows = new Selector(state, ".row");
+            ignored = new Selector(state, ".ignored");
+        }
+    }
+
+    static class FailingPage implements Loadable {
+
+        @Loadable.IsLoaded(findAtLeast = 2)
+        Selector rows;
+
+        @Loadable.FailsIf(containsText = "Server error", reason = "The server responded with an error")
+        Selector error;
+
+        FailingPage(State state) {
+            rows = new Selector(state, ".row");
+            error = new Selector(state, ".error");
+        }
+    }
+
+    @Loadable.ReadyWhen(networkIdleMillis = 500)
+    static class QuietPage implements Loadable {
+
+        @Loadable.Loader(presentOnFinish = FALSE)
+        Selector spinner;
+
+        @Loadable.IsLoaded(visibility = TRUE, findAtLeast = 2)
+        Selector rows;
+
+        QuietPage(State state) {
+            spinner = new Selector(state, ".spinner");
+            rows = new Selector(state, ".row");
+        }
+    }
+
+    private State mockState;
+    private ChromeDriver mockDriver;
+    private WebElement mockRow;
+
+    @BeforeMethod
+    public void setup() {
+        mockState = mock(State.class);
+        mockDriver = mock(ChromeDriver.class, RETURNS_DEEP_STUBS);
+        mockRow = mock(WebElement.class);
+
+        when(mockState.getDriver()).thenReturn(mockDriver);
+        when(mockDriver.findElement(By.cssSelector(".row"))).thenReturn(mockRow);
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(mockRow, mockRow));
+        when(mockDriver.findElements(By.cssSelector(".spinner"))).thenReturn(ImmutableList.of());
+        when(mockDriver.findElement(By.cssSelector(".spinner")))
+                .thenThrow(new org.openqa.selenium.NoSuchElementException("gone"));
+        when(mockRow.isDisplayed()).thenReturn(true);
+    }
+
+    @Test
+    public void isLoadedTest() {
+        assertThat(new SamplePage(mockState).isLoaded(), equalTo(true));
+    }
+
+    @Test
+    public void isLoadedLocatesEachSelectorOnceTest() {
+        Selector rows = new Selector(mockState, ".row");
+
+        Loadable page = new Loadable() {
+            @Loadable.IsLoaded(visibility = TRUE, findAtLeast = 1, findAtMost = 5)
+            Selector selector = rows;
+        };
+
+        assertThat(page.isLoaded(), equalTo(true));
+        verify(mockDriver, never()).findElement(By.cssSelector(".row"));
+        verify(mockDriver, times(1)).findElements(By.cssSelector(".row"));
+        assertThat(QueryContext.current() == null, equalTo(true));
+    }
+
+    @Test
+    public void isLoadedLoaderFailsTest() {
+        doReturn(ImmutableList.of(mock(WebElement.class))).when(mockDriver).findElements(By.cssSelector(".spinner"));
+
+        assertThat(new SamplePage(mockState).isLoaded(), equalTo(false));
+        verify(mockDriver, never()).findElements(By.cssSelector(".row"));
+    }
+
+    @Test
+    public void waitUntilLoadedInBrowserTest() {
+        Map<String, Object> response = ImmutableMap.of(
+                "loaded", false,
+                "verdicts", ImmutableList.of(
+                        ImmutableMap.of("name", "spinner"),
+                        ImmutableMap.of("name", "rows", "failure", "findAtLeast")));
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg())).thenReturn(response);
+
+        LoadReport report = new SamplePage(mockState).waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.isLoaded(), equalTo(false));
+        assertThat(report.getVerdicts(), hasSize(2));
+        assertThat(report.getVerdicts().get(0).isSatisfied(), equalTo(true));
+        assertThat(report.getVerdicts().get(1).getName(), equalTo("rows"));
+        assertThat(report.getVerdicts().get(1).getFailure(), equalTo("findAtLeast"));
+
+        verify(mockDriver, times(1)).executeAsyncScript(eq(BrowserScripts.WAIT_UNTIL_LOADED), anyVararg());
+        verify(mockDriver, never()).findElement(any(By.class));
+    }
+
+    @Test
+    public void waitUntilLoadedInBrowserRestoresScriptTimeoutTest() {
+        Map<String, Object> response = ImmutableMap.of(
+                "loaded", true,
+                "verdicts", ImmutableList.of(ImmutableMap.of("name", "spinner"), ImmutableMap.of("name", "rows")));
+        State state = new State(mockDriver);
+        WebDriver.Timeouts timeouts = mockDriver.manage().timeouts();
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new WebDriverException("document unloaded while waiting for result"))
+                .thenReturn(response);
+
+        LoadReport report = new SamplePage(state).waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.isLoaded(), equalTo(true));
+        verify(mockDriver, times(2)).executeAsyncScript(eq(BrowserScripts.WAIT_UNTIL_LOADED), anyVararg());
+
+        InOrder order = inOrder(timeouts);
+        order.verify(timeouts).setScriptTimeout(1000L + AsyncScript.SCRIPT_TIMEOUT_SLACK_MILLIS, TimeUnit.MILLISECONDS);
+        order.verify(timeouts).setScriptTimeout(0L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expectedExceptions = WebDriverException.class)
+    public void waitUntilLoadedInBrowserRethrowsScriptErrorsTest() {
+        State state = new State(mockDriver);
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new WebDriverException("javascript error: Cannot read property 'length' of null"));
+
+        try {
+            new SamplePage(state).waitUntilLoadedInBrowser(1000L);
+        } finally {
+            verify(mockDriver, times(1)).executeAsyncScript(anyString(), anyVararg());
+            verify(mockDriver.manage().timeouts()).setScriptTimeout(0L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void waitUntilLoadedInBrowserTimeoutReportsCriteriaTest() {
+        doReturn(ImmutableList.of(mock(WebElement.class))).when(mockDriver).findElements(By.cssSelector(".spinner"));
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new TimeoutException("Timed out waiting for async script result"));
+
+        LoadReport report = new SamplePage(mockState).waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.getState(), equalTo(UNKNOWN));
+        assertThat(report.getVerdicts(), hasSize(2));
+        assertThat(report.getVerdicts().get(0).getName(), equalTo("spinner"));
+        assertThat(report.getVerdicts().get(0).getFailure(), not(startsWith("error:")));
+        assertThat(report.getVerdicts().get(0).isSatisfied(), equalTo(false));
+        assertThat(report.getVerdicts().get(1).isSatisfied(), equalTo(true));
+    }
+
+    @Test
+    public void loadWaitsAreLearnedApartFromPageWaitsTest() {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy(10, 100);
+
+        assertThat(new SamplePage(mockState).waitForLoad(1000L, strategy).isLoaded(), equalTo(true));
+
+        assertThat(strategy.getExpectedMillis(SamplePage.class.getName() + "#load") >= 0, equalTo(true));
+        assertThat(strategy.getExpectedMillis(SamplePage.class.getName()), equalTo(-1L));
+    }
+
+    @Test
+    public void compileTest() {
+        List<Map<String, Object>> compiled =
+                BrowserReadiness.compile(LoadCriteria.of(new SamplePage(mockState)).entries());
+
+        assertThat(compiled, hasSize(2));
+        assertThat(compiled.get(0).get("name"), equalTo("spinner"));
+        assertThat(compiled.get(0).get("presence"), equalTo("FALSE"));
+        assertThat(compiled.get(1).get("locator"), equalTo(".row"));
+        assertThat(compiled.get(1).get("findAtLeast"), equalTo(2));
+    }
+
+    @Test
+    public void waitUntilLoadedInBrowserWithoutJavascriptTest() {
+        WebDriver plainDriver = mock(WebDriver.class);
+        when(mockState.getDriver()).thenReturn(plainDriver);
+        when(plainDriver.findElements(By.cssSelector(".spinner"))).thenReturn(ImmutableList.of());
+        when(plainDriver.findElement(By.cssSelector(".spinner")))
+                .thenThrow(new org.openqa.selenium.NoSuchElementException("gone"));
+        when(plainDriver.findElement(By.cssSelector(".row"))).thenReturn(mockRow);
+        when(plainDriver.findElements(By.cssSelector(".row"))).thenReturn(ImmutableList.of(mockRow, mockRow));
+
+        assertThat(new SamplePage(mockState).waitUntilLoadedInBrowser(1000L).isLoaded(), equalTo(true));
+    }
+
+    @Test
+    public void failsIfTest() {
+        WebElement errorElement = mock(WebElement.class);
+        when(errorElement.getText()).thenReturn("500 Server error");
+        when(mockDriver.findElements(By.cssSelector(".error"))).thenReturn(ImmutableList.of(errorElement));
+
+        long start = System.currentTimeMillis();
+        LoadReport report = new FailingPage(mockState).waitForLoad(30000L);
+
+        assertThat(report.getState(), equalTo(FALSE));
+        assertThat(report.getFailureReason(), equalTo("The server responded with an error"));
+        assertThat(report.getVerdicts().get(0).getFailure(), equalTo("failsIf"));
+        assertThat(System.currentTimeMillis() - start, lessThan(5000L));
+        verify(mockDriver, never()).findElements(By.cssSelector(".row"));
+    }
+
+    @Test
+    public void failsIfNotMetTest() {
+        when(mockDriver.findElements(By.cssSelector(".error"))).thenReturn(ImmutableList.of());
+
+        FailingPage page = new FailingPage(mockState);
+
+        assertThat(page.loadState(), equalTo(TRUE));
+        assertThat(page.isLoaded(), equalTo(true));
+    }
+
+    @Test
+    public void stillLoadingTest() {
+        doReturn(ImmutableList.of(mock(WebElement.class))).when(mockDriver).findElements(By.cssSelector(".spinner"));
+
+        assertThat(new SamplePage(mockState).loadState(), equalTo(UNKNOWN));
+    }
+
+    @Test
+    public void failedBecauseTest() {
+        Loadable page = new SamplePage(mockState) {
+            @Override
+            public Optional<String> failedBecause() {
+                return Optional.of("Redirected to the login page");
+            }
+        };
+
+        long start = System.currentTimeMillis();
+
+        assertThat(page.waitUntilLoaded(30000L), equalTo(false));
+        assertThat(page.loadState(), equalTo(FALSE));
+        assertThat(page.waitUntilLoadedInBrowser(30000L).getFailureReason(), equalTo("Redirected to the login page"));
+        assertThat(System.currentTimeMillis() - start, lessThan(5000L));
+        verify(mockDriver, never()).findElements(any(By.class));
+    }
+
+    @Test
+    public void failedBecauseAfterInBrowserWaitTest() {
+        Map<String, Object> response = ImmutableMap.of(
+                "loaded", false,
+                "verdicts", ImmutableList.of(
+                        ImmutableMap.of("name", "spinner"),
+                        ImmutableMap.of("name", "rows", "failure", "findAtLeast")));
+        AtomicInteger asked = new AtomicInteger();
+
+        Loadable page = new Loadable() {
+            @Loadable.Loader(presentOnFinish = FALSE)
+            Selector spinner = new Selector(mockState, ".spinner");
+
+            @Loadable.IsLoaded(visibility = TRUE, findAtLeast = 2)
+            Selector rows = new Selector(mockState, ".row");
+
+            @Override
+            public Optional<String> failedBecause() {
+                return asked.incrementAndGet() > 1 ? Optional.of("Redirected to the login page") : Optional.empty();
+            }
+        };
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg())).thenReturn(response);
+
+        LoadReport report = page.waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.getState(), equalTo(FALSE));
+        assertThat(report.getFailureReason(), equalTo("Redirected to the login page"));
+        assertThat(asked.get(), equalTo(2));
+        verify(mockDriver, times(1)).executeAsyncScript(eq(BrowserScripts.WAIT_UNTIL_LOADED), anyVararg());
+    }
+
+    @Test
+    public void failsIfInBrowserTest() {
+        Map<String, Object> response = ImmutableMap.of(
+                "loaded", false,
+                "verdicts", ImmutableList.of(
+                        ImmutableMap.of("name", "error", "failure", "failsIf"),
+                        ImmutableMap.of("name", "rows", "failure", "findAtLeast")));
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg())).thenReturn(response);
+
+        LoadReport report = new FailingPage(mockState).waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.getState(), equalTo(FALSE));
+        assertThat(report.getFailureReason(), equalTo("The server responded with an error"));
+    }
+
+    @Test
+    public void compileFailsIfFirstTest() {
+        List<Map<String, Object>> compiled =
+                BrowserReadiness.compile(LoadCriteria.of(new FailingPage(mockState)).entries());
+
+        assertThat(compiled, hasSize(2));
+        assertThat(compiled.get(0).get("name"), equalTo("error"));
+        assertThat(compiled.get(0).get("kind"), equalTo("FAILS_IF"));
+        assertThat(compiled.get(1).get("kind"), equalTo("IS_LOADED"));
+    }
+
+    @Test
+    public void readinessTest() {
+        QuietPage page = new QuietPage(mockState);
+
+        assertThat(page.readiness().getNetworkIdleMillis(), equalTo(500L));
+        assertThat(page.readiness().isDocumentComplete(), equalTo(true));
+
+        when(mockDriver.executeScript(eq(BrowserScripts.READINESS), anyVararg())).thenReturn("networkIdle");
+        assertThat(page.loadState(), equalTo(UNKNOWN));
+
+        when(mockDriver.executeScript(eq(BrowserScripts.READINESS), anyVararg())).thenReturn(null);
+        assertThat(page.loadState(), equalTo(TRUE));
+    }
+
+    @Test
+    public void readinessNotCheckedUntilLoadedTest() {
+        doReturn(ImmutableList.of(mock(WebElement.class))).when(mockDriver).findElements(By.cssSelector(".spinner"));
+
+        assertThat(new QuietPage(mockState).loadState(), equalTo(UNKNOWN));
+        verify(mockDriver, never()).executeScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void readinessInBrowserTest() {
+        Map<String, Object> response = ImmutableMap.of(
+                "loaded", false,
+                "readiness", "networkIdle",
+                "verdicts", ImmutableList.of(ImmutableMap.of("name", "spinner"), ImmutableMap.of("name", "rows")));
+
+        when(mockDriver.executeAsyncScript(anyString(), anyVararg())).thenReturn(response);
+
+        LoadReport report = new QuietPage(mockState).waitUntilLoadedInBrowser(1000L);
+
+        assertThat(report.getState(), equalTo(UNKNOWN));
+        assertThat(report.getVerdicts().get(2).getName(), equalTo("readiness"));
+        assertThat(report.getVerdicts().get(2).getFailure(), equalTo("networkIdle"));
+    }
+}
@@ -2,8 +2,13 @@ package com.jcleary.webdriver;
 
 import com.jcleary.core.State;
 import com.jcleary.sample.page.BasicSelectorHtmlPage;
+import com.jcleary.sample.page.reddit.SubRedditRocketLeague;
+import com.jcleary.webdriver.wait.AdaptiveWaitStrategy;
+import org.openqa.selenium.WebDriver;
 import org.testng.annotations.Test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -12,6 +17,14 @@ import static org.mockito.Mockito.when;
  */
 public class PageTest {
 
+    @Page.Info(host = "http://${host}", port = 8080)
+    static class InterpolatedHostPage extends Page {
+
+        InterpolatedHostPage(State state) {
+            super(state);
+        }
+    }
+
     @Test
     public void hostInterpolateTest() {
         State mockState = mock(State.class);
@@ -22,4 +35,38 @@ public class PageTest {
 
         mockPage.getHostname();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void urlFromHierarchyTest() {
+        State state = new State(mock(WebDriver.class));
+        SubRedditRocketLeague page = new SubRedditRocketLeague(state);
+
+        assertThat(page.url(), equalTo("http://reddit.com/r/rocketleague"));
+        assertThat(page.url(), equalTo("http://reddit.com/r/rocketleague"));
+    }
+
+    @Test
+    public void hostInterpolatedOnEveryCallTest() {
+        State state = new State(mock(WebDriver.class));
+        InterpolatedHostPage page = new InterpolatedHostPage(state);
+
+        state.store().update("host", "one");
+        assertThat(page.getHostname(), equalTo("http://one:8080"));
+
+        state.store().update("host", "two");
+        assertThat(page.getHostname(), equalTo("http://two:8080"));
+    }
+
+    @Test
+    public void onlyNamedWaitsAreLearnedTest() {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy(10, 100);
+        InterpolatedHostPage page = new InterpolatedHostPage(new State(mock(WebDriver.class)));
+        page.setWaitStrategy(strategy);
+
+        assertThat(page.waitUntil(p -> true, 1000L), equalTo(true));
+        assertThat(page.waitUntil("ready", p -> true, 1000L), equalTo(true));
+
+        assertThat(strategy.getExpectedMillis(InterpolatedHostPage.class.getName()), equalTo(-1L));
+        assertThat(strategy.getExpectedMillis(InterpolatedHostPage.class.getName() + "#ready") >= 0, equalTo(true));
+    }
+}
@@ -0,0 +1,243 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PollSchedulerTest {
+
+    private ScheduledExecutorService timer;
+    private ExecutorService workers;
+    private PollScheduler scheduler;
+    private State mockState;
+
+    @BeforeMethod
+    public void setup() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        workers = Executors.newCachedThreadPool();
+        scheduler = new PollScheduler(timer, workers);
+        mockState = mock(State.class);
+    }
+
+    @AfterMethod
+    public void teardown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void completesWithFirstValueTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "ready", 5000L, WaitStrategy.fixed(10L),
+                () -> attempts.incrementAndGet() < 3 ? null : "done", null, last -> null);
+
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo("done"));
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    @Test
+    public void timesOutWithLastIgnoredExceptionTest() throws Exception {
+        NoSuchElementException missing = new NoSuchElementException("missing");
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "missing", 50L, WaitStrategy.fixed(10L),
+                () -> {
+                    throw missing;
+                },
+                NoSuchElementException.class,
+                last -> {
+                    throw new TimeoutException("timed out", last);
+                });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The wait should have timed out.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+            assertThat(e.getCause().getCause(), equalTo(missing));
+        }
+    }
+
+    @Test
+    public void unexpectedExceptionCompletesImmediatelyTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "broken", 5000L, WaitStrategy.fixed(10L),
+                () -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("broken");
+                },
+                NoSuchElementException.class, last -> null);
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The wait should have failed.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+        assertThat(attempts.get(), equalTo(1));
+    }
+
+    @Test
+    public void waitsOnSameStateAreCoalescedTest() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger ticks = new AtomicInteger();
+        CountDownLatch submitted = new CountDownLatch(1);
+
+        // Hold the timer thread so that both waits are pending before the first tick.
+        timer.execute(() -> {
+            try {
+                submitted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CompletableFuture<String> first = scheduler.submit(mockState, "first", 5000L, WaitStrategy.fixed(10L),
+                () -> {
+                    threads.add(Thread.currentThread().getName() + "#" + ticks.incrementAndGet());
+                    return "first";
+                }, null, last -> null);
+        CompletableFuture<String> second = scheduler.submit(mockState, "second", 5000L, WaitStrategy.fixed(10L),
+                () -> {
+                    threads.add(Thread.currentThread().getName() + "#" + ticks.get());
+                    return "second";
+                }, null, last -> null);
+        submitted.countDown();
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        // Both waits were due on the same tick, so both were attempted by one run of the group.
+        assertThat(threads.size(), equalTo(2));
+        assertThat(threads.get(0), equalTo(threads.get(1)));
+    }
+
+    @Test
+    public void attemptsExcludeOwnerTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch attempting = new CountDownLatch(1);
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "exclusive", 5000L, WaitStrategy.fixed(1L),
+                () -> {
+                    inside.incrementAndGet();
+                    attempting.countDown();
+                    try {
+                        Thread.sleep(10L);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inside.decrementAndGet();
+                    return attempts.incrementAndGet() < 5 ? null : "done";
+                },
+                null, last -> null);
+
+        attempting.await(5, TimeUnit.SECONDS);
+        while (!future.isDone()) {
+            mockState.exclusively(() -> inside.get() > 0 ? overlaps.incrementAndGet() : 0);
+        }
+
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo("done"));
+        assertThat(overlaps.get(), equalTo(0));
+    }
+
+    @Test
+    public void extractAndRaceExcludeAttemptsTest() throws Exception {
+        WebDriver mockDriver = mock(WebDriver.class);
+        WebElement row = mock(WebElement.class);
+        WebElement title = mock(WebElement.class);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+
+        when(mockState.getDriver()).thenReturn(mockDriver);
+        when(row.findElement(By.cssSelector(".title"))).thenReturn(title);
+        when(title.getText()).thenReturn("title");
+        when(mockDriver.findElements(By.cssSelector(".row"))).thenAnswer(invocation -> {
+            if (inside.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.sleep(2L);
+            inside.decrementAndGet();
+            return ImmutableList.of(row);
+        });
+
+        Selector rows = new Selector(mockState, ".row");
+        SelectorRace race = new SelectorRace(mockState).add(rows, element -> false);
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "rows", 5000L, WaitStrategy.fixed(1L),
+                () -> {
+                    mockDriver.findElements(By.cssSelector(".row"));
+                    return attempts.incrementAndGet() < 20 ? null : "done";
+                },
+                null, last -> null);
+
+        while (!future.isDone()) {
+            assertThat(rows.extract().text("title", new Selector(mockState, ".title")).rows(), hasSize(1));
+            assertThat(race.poll().isEmpty(), equalTo(true));
+        }
+
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo("done"));
+        assertThat(overlaps.get(), equalTo(0));
+    }
+
+    @Test
+    public void finishedGroupsAreRetiredTest() throws Exception {
+        scheduler.submit(mockState, "ready", 5000L, WaitStrategy.fixed(10L), () -> "done", null, last -> null)
+                .get(5, TimeUnit.SECONDS);
+
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (scheduler.pendingGroups() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(scheduler.pendingGroups(), equalTo(0));
+    }
+
+    @Test
+    public void cancelStopsAttemptsTest() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> future = scheduler.submit(mockState, "never", 5000L, WaitStrategy.fixed(10L),
+                () -> {
+                    attempts.incrementAndGet();
+                    return null;
+                }, null, last -> null);
+
+        Thread.sleep(50L);
+        future.cancel(false);
+        Thread.sleep(30L);
+        int cancelledAt = attempts.get();
+        Thread.sleep(100L);
+
+        assertThat(attempts.get() - cancelledAt, lessThan(2));
+    }
+}
@@ -0,0 +1,128 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.jcleary.beans.RedditPost;
+import com.jcleary.core.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RowExtractorTest {
+
+    public static class Listing {
+        private String title;
+        private int score;
+        private Boolean sticky;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public Boolean getSticky() {
+            return sticky;
+        }
+    }
+
+    private State mockState;
+    private WebDriver mockDriver;
+    private Selector row;
+    private Selector title;
+    private Selector score;
+
+    @BeforeMethod
+    public void setup() {
+        mockState = mock(State.class);
+        mockDriver = mock(ChromeDriver.class);
+        when(mockState.getDriver()).thenReturn(mockDriver);
+
+        row = new Selector(mockState, ".thing");
+        title = new Selector(mockState, "a.title");
+        score = new Selector(mockState, ".score");
+    }
+
+    @Test
+    public void extractsAllRowsInOneScriptTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg())).thenReturn(Arrays.asList(
+                Arrays.asList("first", "12"),
+                Arrays.asList("second", null)));
+
+        List<RedditPost> posts = row.extract()
+                .text("name", title)
+                .text("karma", score)
+                .as(r -> new RedditPost(r.get("karma"), r.get("name"), -2));
+
+        assertThat(posts, contains(new RedditPost("12", "first", -2), new RedditPost(null, "second", -2)));
+        verify((JavascriptExecutor) mockDriver, times(1)).executeScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void extractsIntoBeanTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg())).thenReturn(Arrays.asList(
+                Arrays.asList("first", " 12 ", "true"),
+                Arrays.asList("second", null, null)));
+
+        Map<String, Selector> fields = new LinkedHashMap<>();
+        fields.put("title", title);
+        fields.put("score", score);
+        fields.put("sticky", new Selector(mockState, ".stickied"));
+
+        List<Listing> listings = row.extract(fields, Listing.class);
+
+        assertThat(listings.get(0).getTitle(), equalTo("first"));
+        assertThat(listings.get(0).getScore(), equalTo(12));
+        assertThat(listings.get(0).getSticky(), equalTo(true));
+        assertThat(listings.get(1).getScore(), equalTo(0));
+        assertThat(listings.get(1).getSticky(), nullValue());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unknownBeanFieldTest() {
+        row.extract().text("missing", title).into(Listing.class);
+    }
+
+    @Test
+    public void fallbackWithoutJavascriptTest() {
+        WebDriver plainDriver = mock(WebDriver.class);
+        when(mockState.getDriver()).thenReturn(plainDriver);
+
+        WebElement mockRow = mock(WebElement.class);
+        WebElement mockTitle = mock(WebElement.class);
+        when(plainDriver.findElements(By.cssSelector(".thing"))).thenReturn(ImmutableList.of(mockRow));
+        when(mockRow.findElement(By.cssSelector("a.title"))).thenReturn(mockTitle);
+        when(mockRow.findElement(By.cssSelector(".score"))).thenThrow(new NoSuchElementException(""));
+        when(mockTitle.getAttribute("href")).thenReturn("/r/rocketleague");
+
+        List<Map<String, String>> rows = row.extract()
+                .attribute("link", title, "href")
+                .text("karma", score)
+                .rows();
+
+        assertThat(rows.get(0).get("link"), equalTo("/r/rocketleague"));
+        assertThat(rows.get(0).get("karma"), nullValue());
+    }
+}
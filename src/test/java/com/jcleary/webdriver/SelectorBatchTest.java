@@ -0,0 +1,103 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.jcleary.core.State;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SelectorBatchTest {
+
+    private State mockState;
+    private ChromeDriver mockDriver;
+    private Selector present;
+    private Selector absent;
+
+    @BeforeMethod
+    public void setup() {
+        mockState = mock(State.class);
+        mockDriver = mock(ChromeDriver.class);
+        when(mockState.getDriver()).thenReturn(mockDriver);
+
+        present = new Selector(mockState, "div.present");
+        absent = new Selector(mockState, "div.absent");
+    }
+
+    @Test
+    public void singleRoundTripTest() {
+        Map<String, Object> presentResult = new HashMap<>();
+        presentResult.put("count", 2L);
+        presentResult.put("displayed", true);
+        presentResult.put("text", "hello");
+        presentResult.put("attributes", ImmutableMap.of("id", "greeting"));
+
+        Map<String, Object> absentResult = new HashMap<>();
+        absentResult.put("count", 0L);
+        absentResult.put("displayed", false);
+        absentResult.put("text", null);
+        absentResult.put("attributes", ImmutableMap.of());
+
+        when(mockDriver.executeScript(anyString(), anyVararg()))
+                .thenReturn(ImmutableList.of(presentResult, absentResult));
+
+        SelectorBatch.Result result = new SelectorBatch(mockState)
+                .add(present, "id")
+                .add(absent)
+                .execute();
+
+        verify(mockDriver, times(1)).executeScript(anyString(), anyVararg());
+        verify(mockDriver, never()).findElement(any(By.class));
+        verify(mockDriver, never()).findElements(any(By.class));
+
+        assertThat(result.get(present).isPresent(), equalTo(true));
+        assertThat(result.get(present).count(), equalTo(2));
+        assertThat(result.get(present).isDisplayed(), equalTo(true));
+        assertThat(result.get(present).getText(), equalTo("hello"));
+        assertThat(result.get(present).getAttribute("id"), equalTo("greeting"));
+
+        assertThat(result.get(absent).isPresent(), equalTo(false));
+        assertThat(result.get(absent).isDisplayed(), equalTo(false));
+        assertThat(result.get(absent).getText(), nullValue());
+    }
+
+    @Test
+    public void fallbackWithoutJavascriptTest() {
+        WebDriver plainDriver = mock(WebDriver.class);
+        WebElement mockElement = mock(WebElement.class);
+
+        when(mockState.getDriver()).thenReturn(plainDriver);
+        when(plainDriver.findElements(present.getBy())).thenReturn(ImmutableList.of(mockElement));
+        when(mockElement.isDisplayed()).thenReturn(true);
+        when(mockElement.getText()).thenReturn("hello");
+
+        SelectorBatch.Result result = Selector.queryAll(present, absent);
+
+        assertThat(result.get(present).count(), equalTo(1));
+        assertThat(result.get(present).getText(), equalTo("hello"));
+        assertThat(result.get(absent).isPresent(), equalTo(false));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void mixedStatesTest() {
+        new SelectorBatch(mockState).add(new Selector(mock(State.class), "div"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.jcleary.webdriver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.jcleary.core.State;
+import com.jcleary.webdriver.wait.WaitStrategy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SelectorRaceTest {
+
+    private State mockState;
+    private ChromeDriver mockDriver;
+    private Selector success;
+    private Selector error;
+    private WebElement banner;
+
+    @BeforeMethod
+    public void setup() {
+        mockState = mock(State.class);
+        mockDriver = mock(ChromeDriver.class);
+        banner = mock(WebElement.class);
+        when(mockState.getDriver()).thenReturn(mockDriver);
+
+        success = new Selector(mockState, ".success");
+        error = new Selector(mockState, ".error");
+    }
+
+    @Test
+    public void anyInOneRoundTripTest() {
+        when(mockDriver.executeScript(eq(BrowserScripts.FIRST_MATCHES), anyVararg()))
+                .thenReturn(Arrays.asList(null, banner));
+
+        SelectorRace.Match match = new SelectorRace(mockState)
+                .add(success, ElementCondition.visible())
+                .add(error, ElementCondition.visible())
+                .waitForAny(1000L);
+
+        assertThat(match.is(error), equalTo(true));
+        assertThat(match.getElement(), sameInstance(banner));
+        verify(mockDriver, times(1)).executeScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void anyFromJavaTest() {
+        WebDriver plainDriver = mock(WebDriver.class);
+        when(mockState.getDriver()).thenReturn(plainDriver);
+        when(plainDriver.findElements(By.cssSelector(".success"))).thenReturn(ImmutableList.of());
+        when(plainDriver.findElements(By.cssSelector(".error"))).thenReturn(ImmutableList.of(banner));
+        when(banner.getText()).thenReturn("Try again");
+
+        Predicate<WebElement> hasText = element -> !element.getText().isEmpty();
+        Map<Selector, Predicate<WebElement>> candidates = ImmutableMap.of(success, hasText, error, hasText);
+
+        assertThat(SelectorRace.of(mockState, candidates).waitForAny(1000L).getSelector(), sameInstance(error));
+        verify(plainDriver, times(1)).findElements(By.cssSelector(".error"));
+    }
+
+    @Test
+    public void allTest() {
+        when(mockDriver.executeScript(eq(BrowserScripts.FIRST_MATCHES), anyVararg()))
+                .thenReturn(Arrays.asList(null, banner))
+                .thenReturn(Arrays.asList(banner, banner));
+
+        Map<Selector, WebElement> found = new SelectorRace(mockState)
+                .add(success, ElementCondition.present())
+                .add(error, ElementCondition.present())
+                .withWaitStrategy(WaitStrategy.fixed(10))
+                .waitForAll(1000L);
+
+        assertThat(found.keySet(), contains(success, error));
+        verify(mockDriver, times(2)).executeScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void allTimesOutTest() {
+        when(mockDriver.executeScript(eq(BrowserScripts.FIRST_MATCHES), anyVararg()))
+                .thenReturn(Arrays.asList(null, banner));
+
+        SelectorRace race = new SelectorRace(mockState)
+                .add(success, ElementCondition.present())
+                .add(error, ElementCondition.present())
+                .withWaitStrategy(WaitStrategy.fixed(10));
+
+        try {
+            race.waitForAll(100L);
+            throw new AssertionError("Expected a timeout");
+        } catch (TimeoutException e) {
+            assertThat(e.getMessage().contains("still waiting for [" + success + "]"), equalTo(true));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void otherStateTest() {
+        new SelectorRace(mockState).add(new Selector(mock(State.class), ".other"), ElementCondition.present());
+    }
+}
@@ -10,15 +10,22 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.jcleary.webdriver.ByFactory.CSS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -180,7 +187,8 @@ public class SelectorTest {
     @Test
     public void waitUntilSingleIterationTest() {
         selector.waitUntil(e -> true);
-        verify(mockDriver, times(1)).findElement(expectedBy);
+        verify(mockDriver, times(1)).findElements(expectedBy);
+        verify(mockDriver, never()).findElement(expectedBy);
     }
 
     @Test
@@ -194,7 +202,7 @@ public class SelectorTest {
         selector.waitUntil(e -> clock.isNowBefore(delay + now));
 
         assertTrue(clock.isNowBefore(delay + now));
-        verify(mockDriver).findElement(expectedBy);
+        verify(mockDriver).findElements(expectedBy);
     }
 
     @Test
@@ -241,4 +249,207 @@ public class SelectorTest {
             assertThat(e, instanceOf(TimeoutException.class));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void eventDrivenWaitUsesOneScriptTest() {
+        WebDriver.Options mockOptions = mock(WebDriver.Options.class);
+        WebDriver.Timeouts mockTimeouts = mock(WebDriver.Timeouts.class);
+        when(mockDriver.manage()).thenReturn(mockOptions);
+        when(mockOptions.timeouts()).thenReturn(mockTimeouts);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("element", mockElement2);
+        when(((JavascriptExecutor) mockDriver).executeAsyncScript(anyString(), anyVararg())).thenReturn(response);
+
+        selector.setTimeoutMillis(5000L);
+        selector.setEventDriven(true);
+
+        WebElement element = selector.waitForFirstOccurrenceWhere(ElementCondition.visible());
+
+        assertThat(element, equalTo(mockElement2));
+        verify((JavascriptExecutor) mockDriver, times(1)).executeAsyncScript(anyString(), anyVararg());
+        verify(mockDriver, never()).findElements(expectedBy);
+    }
+
+    @Test(expectedExceptions = TimeoutException.class)
+    public void eventDrivenWaitTimesOutTest() {
+        WebDriver.Options mockOptions = mock(WebDriver.Options.class);
+        when(mockDriver.manage()).thenReturn(mockOptions);
+        when(mockOptions.timeouts()).thenReturn(mock(WebDriver.Timeouts.class));
+        when(((JavascriptExecutor) mockDriver).executeAsyncScript(anyString(), anyVararg()))
+                .thenReturn(new HashMap<String, Object>());
+
+        selector.setEventDriven(true);
+        selector.waitUntil(ElementCondition.visible());
+    }
+
+    @Test
+    public void eventDrivenWaitFallsBackToPollingTest() {
+        when(((JavascriptExecutor) mockDriver).executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new WebDriverException("javascript error: MutationObserver is not defined"));
+
+        selector.setEventDriven(true);
+
+        WebElement element = selector.waitForFirstOccurrenceWhere(ElementCondition.visible());
+
+        assertThat(element, equalTo(mockElement2));
+        verify((JavascriptExecutor) mockDriver, times(1)).executeAsyncScript(anyString(), anyVararg());
+        verify(mockDriver).findElements(expectedBy);
+    }
+
+    @Test
+    public void eventDrivenFallbackKeepsTimeoutTest() {
+        when(((JavascriptExecutor) mockDriver).executeAsyncScript(anyString(), anyVararg())).thenAnswer(invocation -> {
+            Thread.sleep(400L);
+            throw new WebDriverException("javascript error: MutationObserver is not defined");
+        });
+
+        selector.setTimeoutMillis(600L);
+        selector.setPollingIntervalPeriodMillis(10L);
+        selector.setEventDriven(true);
+        long start = System.currentTimeMillis();
+
+        try {
+            selector.waitUntil(ElementCondition.visible());
+            assert false;
+        } catch (TimeoutException e) {
+            assertThat(System.currentTimeMillis() - start, lessThan(900L));
+        }
+        verify(mockDriver, atLeastOnce()).findElements(expectedBy);
+    }
+
+    @Test
+    public void eventDrivenWaitPollsOpaquePredicatesTest() {
+        selector.setEventDriven(true);
+
+        selector.waitUntil(e -> true);
+
+        verify((JavascriptExecutor) mockDriver, never()).executeAsyncScript(anyString(), anyVararg());
+        verify(mockDriver).findElements(expectedBy);
+    }
+
+    @Test
+    public void getMultipleWhereFiltersInBrowserTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg()))
+                .thenReturn(ImmutableList.of(mockElement2));
+
+        List<WebElement> found = selector.getMultipleWhere(ElementCondition.visible().and(ElementCondition.hasClass("row")));
+
+        assertThat(found, equalTo(ImmutableList.of(mockElement2)));
+        verify(mockDriver, never()).findElements(expectedBy);
+        verify(mockElement1, never()).isDisplayed();
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void getWhereFiltersInBrowserFailTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg()))
+                .thenReturn(ImmutableList.of());
+
+        selector.getWhere(ElementCondition.textContains("missing"));
+    }
+
+    @Test
+    public void cachedElementIsReusedTest() {
+        selector.setCachingElements(true);
+
+        selector.clear().sendKeys("abc").submit();
+
+        verify(mockDriver, times(1)).findElement(expectedBy);
+        verify(mockElement1).clear();
+        verify(mockElement1).sendKeys("abc");
+        verify(mockElement1).submit();
+    }
+
+    @Test
+    public void staleCachedElementIsRelocatedTest() {
+        selector.setCachingElements(true);
+        selector.get();
+
+        when(mockDriver.findElement(expectedBy)).thenReturn(mockElement2);
+        when(mockElement1.getText()).thenThrow(new StaleElementReferenceException(""));
+        when(mockElement2.getText()).thenReturn("fresh");
+
+        assertThat(selector.getText(), equalTo("fresh"));
+        assertThat(selector.get(), equalTo(mockElement2));
+    }
+
+    @Test
+    public void navigationInvalidatesCacheTest() {
+        selector.setCachingElements(true);
+        selector.getMultiple();
+        selector.getMultiple();
+
+        when(mockState.getNavigationCount()).thenReturn(1L);
+        selector.getMultiple();
+
+        verify(mockDriver, times(2)).findElements(expectedBy);
+    }
+
+    @Test(expectedExceptions = StaleElementReferenceException.class)
+    public void staleWithoutCacheIsThrownTest() {
+        when(mockElement1.getText()).thenThrow(new StaleElementReferenceException(""));
+
+        selector.getText();
+    }
+
+    @Test
+    public void cachedReadsReuseValueWhileEpochUnchangedTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg())).thenReturn("doc:1");
+        when(mockElement1.getText()).thenReturn("text");
+        selector.setCachingReads(true);
+
+        selector.getText();
+        selector.getText();
+
+        verify(mockDriver, times(1)).findElement(expectedBy);
+        verify(mockElement1, times(1)).getText();
+    }
+
+    @Test
+    public void cachedReadsRefreshOnChangeTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg()))
+                .thenReturn("doc:1", "doc:1", "doc:2", "doc:2", "doc:2");
+        when(mockElement1.getText()).thenReturn("text");
+        selector.setCachingReads(true);
+
+        selector.getText();
+        selector.getText();
+        selector.getText();
+        selector.click();
+        selector.getText();
+
+        verify(mockElement1, times(3)).getText();
+    }
+
+    @Test
+    public void cachedReadsSkipPropertyBackedAttributesTest() {
+        when(((JavascriptExecutor) mockDriver).executeScript(anyString(), anyVararg())).thenReturn("doc:1");
+        when(mockElement1.getAttribute("value")).thenReturn("a", "ab");
+        when(mockElement1.getAttribute("href")).thenReturn("/home");
+        selector.setCachingReads(true);
+
+        assertThat(selector.getAttribute("value"), equalTo("a"));
+        assertThat(selector.getAttribute("value"), equalTo("ab"));
+        selector.getAttribute("href");
+        selector.getAttribute("href");
+
+        verify(mockElement1, times(2)).getAttribute("value");
+        verify(mockElement1, times(1)).getAttribute("href");
+    }
+
+    @Test
+    public void findOptionalAbsentTest() {
+        when(mockDriver.findElements(expectedBy)).thenReturn(ImmutableList.of());
+
+        assertThat(selector.findOptional().isPresent(), equalTo(false));
+        assertThat(selector.isPresent(), equalTo(false));
+        assertThat(selector.count(), equalTo(0));
+        verify(mockDriver, never()).findElement(expectedBy);
+    }
+
+    @Test
+    public void findOptionalWhereTest() {
+        assertThat(selector.findOptionalWhere(WebElement::isDisplayed).get(), equalTo(mockElement2));
+        assertThat(selector.findOptionalWhere(WebElement::isEnabled).isPresent(), equalTo(false));
+    }
+}
@@ -0,0 +1,176 @@
+package com.jcleary.webdriver.processors;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PageProcessorTest {
+
+    private Path workingDirectory;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        workingDirectory = Files.createTempDirectory("page-processor");
+        diagnostics = new DiagnosticCollector<>();
+    }
+
+    @AfterMethod
+    public void teardown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workingDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void generatesPlanTest() throws IOException {
+        boolean compiled = compile("Home",
+                "@Page.Info(host = \"http://example.com\", port = 8080, relativePath = \"/home\")",
+                "public class Home extends Page {",
+                "    @Loadable.IsLoaded(findAtLeast = 1, findAtMost = 3)",
+                "    Selector rows;",
+                "    public Home(State state) { super(state); }",
+                "}");
+
+        assertThat(errors(), empty());
+        assertThat(compiled, equalTo(true));
+
+        String generated = new String(
+                Files.readAllBytes(workingDirectory.resolve("sample/Home_PagePlan.java")), StandardCharsets.UTF_8);
+
+        assertThat(generated, containsString("return \"http://example.com:8080\";"));
+        assertThat(generated, containsString("return \"/home\";"));
+        assertThat(generated, containsString("((sample.Home) page).rows"));
+    }
+
+    @Test
+    public void exactlyWithAtLeastFailsTest() throws IOException {
+        boolean compiled = compile("Broken",
+                "public class Broken extends Page {",
+                "    @Loadable.IsLoaded(findExactly = 2, findAtLeast = 1)",
+                "    Selector rows;",
+                "    public Broken(State state) { super(state); }",
+                "}");
+
+        assertThat(compiled, equalTo(false));
+        assertThat(errors(), contains(containsString("findExactly can't be combined")));
+    }
+
+    @Test
+    public void absentButVisibleFailsTest() throws IOException {
+        boolean compiled = compile("Broken",
+                "public class Broken extends Page {",
+                "    @Loadable.IsLoaded(presence = Ternary.FALSE, visibility = Ternary.TRUE)",
+                "    Selector rows;",
+                "    public Broken(State state) { super(state); }",
+                "}");
+
+        assertThat(compiled, equalTo(false));
+        assertThat(errors(), contains(containsString("expected to be absent")));
+    }
+
+    @Test
+    public void notASelectorFailsTest() throws IOException {
+        boolean compiled = compile("Broken",
+                "public class Broken extends Page {",
+                "    @Loadable.IsLoaded",
+                "    String rows;",
+                "    public Broken(State state) { super(state); }",
+                "}");
+
+        assertThat(compiled, equalTo(false));
+        assertThat(errors(), contains(containsString("only be declared on Selector fields")));
+    }
+
+    @Test
+    public void generatesFailsIfTest() throws IOException {
+        boolean compiled = compile("Guarded",
+                "public class Guarded extends Page {",
+                "    @Loadable.FailsIf(containsText = \"Sign in\", reason = \"Redirected to login\")",
+                "    @Loadable.IsLoaded",
+                "    Selector header;",
+                "    public Guarded(State state) { super(state); }",
+                "}");
+
+        assertThat(errors(), empty());
+        assertThat(compiled, equalTo(true));
+
+        String generated = new String(
+                Files.readAllBytes(workingDirectory.resolve("sample/Guarded_PagePlan.java")), StandardCharsets.UTF_8);
+
+        assertThat(generated, containsString("LoadCriterion.failsIf("));
+        assertThat(generated, containsString("\"Redirected to login\""));
+        assertThat(generated, containsString("LoadCriterion.isLoaded("));
+    }
+
+    @Test
+    public void failsIfWithoutExpectationsFailsTest() throws IOException {
+        boolean compiled = compile("Broken",
+                "public class Broken extends Page {",
+                "    @Loadable.FailsIf(presence = Ternary.UNKNOWN)",
+                "    Selector error;",
+                "    public Broken(State state) { super(state); }",
+                "}");
+
+        assertThat(compiled, equalTo(false));
+        assertThat(errors(), contains(containsString("would always fail")));
+    }
+
+    private boolean compile(String className, String...lines) throws IOException {
+        String source = "package sample;\n"
+                + "import com.jcleary.core.State;\n"
+                + "import com.jcleary.util.Ternary;\n"
+                + "import com.jcleary.webdriver.*;\n"
+                + String.join("\n", lines);
+
+        Path sourceFile = workingDirectory.resolve(className + ".java");
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<String> options = Arrays.asList(
+                    "-proc:only",
+                    "-processor", PageProcessor.class.getName(),
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", workingDirectory.toString());
+
+            Iterable<? extends JavaFileObject> units =
+                    fileManager.getJavaFileObjectsFromFiles(Arrays.asList(new File(sourceFile.toString())));
+
+            return compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        }
+    }
+
+    private List<String> errors() {
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.toList());
+    }
+}
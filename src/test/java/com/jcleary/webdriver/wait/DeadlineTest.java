@@ -0,0 +1,81 @@
+package com.jcleary.webdriver.wait;
+
+import org.openqa.selenium.TimeoutException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DeadlineTest {
+
+    @AfterMethod
+    public void teardown() {
+        while (Deadline.current() != null) {
+            Deadline.current().close();
+        }
+    }
+
+    @Test
+    public void noDeadlineLeavesTimeoutTest() {
+        assertThat(Deadline.clamp(10000L), equalTo(10000L));
+        assertThat(Deadline.remainingMillis(), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void timeoutIsClampedToRemainingBudgetTest() {
+        try (Deadline deadline = Deadline.within(1000L)) {
+            assertThat(Deadline.clamp(10000L), lessThanOrEqualTo(1000L));
+            assertThat(Deadline.clamp(100L), equalTo(100L));
+        }
+        assertThat(Deadline.current(), nullValue());
+    }
+
+    @Test
+    public void innerDeadlineCannotExtendOuterTest() {
+        try (Deadline outer = Deadline.within(500L)) {
+            try (Deadline inner = Deadline.within(60000L)) {
+                assertThat(Deadline.clamp(10000L), lessThanOrEqualTo(500L));
+                assertThat(inner.getBudgetMillis(), equalTo(500L));
+            }
+            try (Deadline inner = Deadline.within(100L)) {
+                assertThat(Deadline.clamp(10000L), lessThanOrEqualTo(100L));
+            }
+            assertThat(Deadline.current(), sameInstance(outer));
+        }
+    }
+
+    @Test(expectedExceptions = TimeoutException.class)
+    public void passedDeadlineFailsFastTest() throws InterruptedException {
+        try (Deadline deadline = Deadline.within(1L)) {
+            Thread.sleep(5L);
+            Deadline.clamp(10000L);
+        }
+    }
+
+    @Test
+    public void nestedWaitsShareBudgetTest() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        Waiter waiter = new Waiter(WaitStrategy.fixed(10L));
+        long start = System.currentTimeMillis();
+
+        try (Deadline deadline = Deadline.within(100L)) {
+            assertThat(waiter.until("first", 10000L, () -> null).isSatisfied(), equalTo(false));
+            Thread.sleep(5L);
+
+            try {
+                waiter.until("second", 10000L, () -> attempts.incrementAndGet() > 0 ? "never" : null);
+                throw new AssertionError("The second wait should have failed fast.");
+            } catch (TimeoutException e) {
+                assertThat(attempts.get(), equalTo(0));
+            }
+        }
+        assertThat(System.currentTimeMillis() - start, lessThan(5000L));
+    }
+}
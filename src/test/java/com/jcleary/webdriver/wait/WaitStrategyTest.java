@@ -0,0 +1,124 @@
+package com.jcleary.webdriver.wait;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WaitStrategyTest {
+
+    private long now;
+    private List<Long> sleeps;
+    private Clock clock;
+    private Sleeper sleeper;
+
+    @BeforeMethod
+    public void setup() {
+        now = 0;
+        sleeps = new ArrayList<>();
+
+        clock = new Clock() {
+            @Override
+            public long now() {
+                return now;
+            }
+
+            @Override
+            public long laterBy(long durationInMillis) {
+                return now + durationInMillis;
+            }
+
+            @Override
+            public boolean isNowBefore(long endInMillis) {
+                return now < endInMillis;
+            }
+        };
+
+        sleeper = duration -> {
+            long millis = duration.in(TimeUnit.MILLISECONDS);
+            sleeps.add(millis);
+            now += millis;
+        };
+    }
+
+    @Test
+    public void fixedSleepsBetweenAttemptsTest() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Waiter.Outcome<String> outcome = new Waiter(WaitStrategy.fixed(100), clock, sleeper)
+                .until("key", 1000, () -> attempts.incrementAndGet() == 3 ? "done" : null);
+
+        assertThat(outcome.getValue(), equalTo("done"));
+        assertThat(outcome.getAttempts(), equalTo(3));
+        assertThat(sleeps, contains(100L, 100L));
+    }
+
+    @Test
+    public void lastSleepIsCappedByTimeoutTest() {
+        Waiter.Outcome<String> outcome = new Waiter(WaitStrategy.fixed(300), clock, sleeper)
+                .until("key", 500, () -> null);
+
+        assertThat(outcome.isSatisfied(), equalTo(false));
+        assertThat(sleeps, contains(300L, 200L));
+    }
+
+    @Test
+    public void ignoredExceptionIsKeptTest() {
+        Waiter.Outcome<String> outcome = new Waiter(WaitStrategy.fixed(10), clock, sleeper)
+                .until("key", 50, () -> {
+                    throw new NoSuchElementException("missing");
+                }, NoSuchElementException.class);
+
+        assertThat(outcome.getValue(), nullValue());
+        assertThat(outcome.getLastIgnored(), instanceOf(NoSuchElementException.class));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void otherExceptionsPropagateTest() {
+        new Waiter(WaitStrategy.fixed(10), clock, sleeper)
+                .until("key", 50, () -> {
+                    throw new IllegalStateException();
+                }, NoSuchElementException.class);
+    }
+
+    @Test
+    public void backoffGrowsWithJitterTest() {
+        BackoffWaitStrategy strategy = new BackoffWaitStrategy(100, 1000, 2.0);
+
+        assertThat(strategy.delayOf(1), equalTo(100L));
+        assertThat(strategy.delayOf(3), equalTo(400L));
+        assertThat(strategy.delayOf(10), equalTo(1000L));
+
+        for (int i = 0; i < 50; i++) {
+            long delay = strategy.nextDelay("key", 3, 0);
+            assertThat(delay, greaterThanOrEqualTo(200L));
+            assertThat(delay, lessThanOrEqualTo(400L));
+        }
+    }
+
+    @Test
+    public void adaptiveSleepsUntilExpectedWindowTest() {
+        AdaptiveWaitStrategy strategy = new AdaptiveWaitStrategy(20, 5000);
+
+        strategy.satisfied("slow", 2000);
+
+        assertThat(strategy.getExpectedMillis("slow"), equalTo(2000L));
+        assertThat(strategy.nextDelay("slow", 1, 0), equalTo(1980L));
+        assertThat(strategy.nextDelay("slow", 2, 1990), equalTo(20L));
+        assertThat(strategy.getExpectedMillis("unknown"), equalTo(-1L));
+    }
+}